@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * A* search over a {@link RoutingGraph} guided by {@link LandmarkIndex} lower bounds. Because the
+ * landmark heuristic is consistent, a town's distance is final when it leaves the queue, and the
+ * search stops as soon as the target does. Like {@link DijkstraSearch}, all labels are int arrays
+ * reset by an epoch stamp.
+ * 
+ * @author Hussain Mohammad
+ */
+final class AStarSearch {
+
+    private final RoutingGraph graph;
+    private final LandmarkIndex landmarks;
+    private final IndexedMinHeap heap;
+    private final int[] dist;
+    private final int[] bound;
+    private final int[] pred;
+    private final int[] predSlot;
+    private final int[] stamp;
+    private int epoch;
+
+    /**
+     * Creates a search bound to a routing graph and its landmark tables.
+     * 
+     * @param graph     the graph to search
+     * @param landmarks landmark tables computed for the same graph
+     */
+    AStarSearch(RoutingGraph graph, LandmarkIndex landmarks) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        int n = graph.size();
+        heap = new IndexedMinHeap(n);
+        dist = new int[n];
+        bound = new int[n];
+        pred = new int[n];
+        predSlot = new int[n];
+        stamp = new int[n];
+    }
+
+    /**
+     * Finds a shortest path between two towns.
+     * 
+     * @param source the source id
+     * @param target the target id
+     * @return the path found
+     */
+    PathResult run(int source, int target) {
+        if (++epoch == 0) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        heap.clear();
+        int settled = 0;
+        int h = landmarks.lowerBound(source, target);
+        if (h == DijkstraSearch.UNREACHABLE) return PathResult.notFound(settled);
+        reach(source, 0, h, -1, -1);
+        heap.insertOrDecrease(source, h);
+        int[] offsets = graph.offsets, targets = graph.targets, weights = graph.weights;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            if (u == target) return graph.path(target, dist[target], pred, predSlot, settled);
+            int du = dist[u];
+            for (int slot = offsets[u], end = offsets[u + 1]; slot < end; slot++) {
+                int v = targets[slot];
+                long candidate = (long) du + weights[slot];
+                int hv;
+                if (stamp[v] == epoch) {
+                    if (candidate >= dist[v]) continue;
+                    hv = bound[v];
+                } else {
+                    hv = landmarks.lowerBound(v, target);
+                    if (hv == DijkstraSearch.UNREACHABLE) continue;
+                }
+                reach(v, (int) candidate, hv, u, slot);
+                heap.insertOrDecrease(v, (int) Math.min(candidate + hv, Integer.MAX_VALUE - 1));
+            }
+        }
+        return PathResult.notFound(settled);
+    }
+
+    private void reach(int node, int distance, int h, int from, int slot) {
+        stamp[node] = epoch;
+        dist[node] = distance;
+        bound[node] = h;
+        pred[node] = from;
+        predSlot[node] = slot;
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed shortest distances and next hops between every pair of towns, so a route query is
+ * a table walk with no search. The table is filled by one full Dijkstra run per town, spread over
+ * a {@link ForkJoinPool}.
+ * <p>
+ * Roads are two-way, so the tree grown from a town {@code t} already holds, for every other town
+ * {@code s}, both the distance from {@code s} to {@code t} and the neighbour {@code s} should move
+ * to next. Row {@code t} of the table stores exactly that, so each run writes one contiguous row
+ * and a path is rebuilt by reading a single row. A cell takes six bytes: an int distance and a
+ * 16-bit index into the town's own road list.
+ * <p>
+ * A table for {@code n} towns needs {@code 6 * n * n} bytes, held on the heap or, if a file is given,
+ * memory-mapped from that file so it stays off the heap. The file only backs one table and
+ * cannot be reopened. Tables are limited to {@value #MAX_TOWNS} towns. Like the other routing
+ * indexes, a table describes the graph as it was built and is replaced after edits.
+ *
+ * @author Hussain Mohammad
+ */
+public final class AllPairsTable {
+
+    /** The largest number of towns a table can hold, so one row-major int table fits one buffer. */
+    public static final int MAX_TOWNS = 23170;
+
+    private static final char NO_HOP = Character.MAX_VALUE;
+
+    private final RoutingGraph graph;
+    private final IntBuffer distances;
+    private final CharBuffer hops;
+    private final long buildNanos;
+
+    private AllPairsTable(RoutingGraph graph, IntBuffer distances, CharBuffer hops, long buildNanos) {
+        this.graph = graph;
+        this.distances = distances;
+        this.hops = hops;
+        this.buildNanos = buildNanos;
+    }
+
+    /**
+     * Builds a heap-backed table for the current state of a graph with one worker per processor.
+     *
+     * @param graph the graph to preprocess
+     * @return the all-pairs table
+     * @throws IllegalArgumentException if the graph has more than {@value #MAX_TOWNS} towns
+     */
+    public static AllPairsTable build(Graph graph) {
+        return build(graph.snapshot().routingGraph(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds a table for the current state of a graph in a memory-mapped file, which is created
+     * or overwritten.
+     *
+     * @param graph the graph to preprocess
+     * @param file  the file to hold the table
+     * @return the all-pairs table
+     * @throws IOException              if the file cannot be created or mapped
+     * @throws IllegalArgumentException if the graph has more than {@value #MAX_TOWNS} towns
+     */
+    public static AllPairsTable build(Graph graph, Path file) throws IOException {
+        RoutingGraph compiled = graph.snapshot().routingGraph();
+        long cells = checkSize(compiled);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            IntBuffer distances = channel.map(FileChannel.MapMode.READ_WRITE, 0, cells * 4).asIntBuffer();
+            CharBuffer hops = channel.map(FileChannel.MapMode.READ_WRITE, cells * 4, cells * 2).asCharBuffer();
+            return fill(compiled, distances, hops, Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Builds a heap-backed table for a compiled graph.
+     *
+     * @param graph       the compiled graph
+     * @param parallelism the number of searches run at once
+     * @return the all-pairs table
+     */
+    static AllPairsTable build(RoutingGraph graph, int parallelism) {
+        int cells = (int) checkSize(graph);
+        return fill(graph, IntBuffer.allocate(cells), CharBuffer.allocate(cells), parallelism);
+    }
+
+    private static long checkSize(RoutingGraph graph) {
+        int n = graph.size();
+        if (n > MAX_TOWNS) {
+            throw new IllegalArgumentException("All-pairs tables are limited to " + MAX_TOWNS + " towns, not " + n);
+        }
+        for (int u = 0; u < n; u++) {
+            if (graph.offsets[u + 1] - graph.offsets[u] >= NO_HOP) {
+                throw new IllegalArgumentException("Town " + graph.towns[u] + " has too many roads for an all-pairs table");
+            }
+        }
+        return (long) n * n;
+    }
+
+    private static AllPairsTable fill(RoutingGraph graph, IntBuffer distances, CharBuffer hops, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+        long start = System.nanoTime();
+        int n = graph.size();
+        int[] reverse = graph.reverseSlots();
+        int tasks = Math.max(1, Math.min(n, parallelism * 4));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(task -> {
+                DijkstraSearch search = new DijkstraSearch(graph);
+                for (int t = task; t < n; t += tasks) {
+                    search.run(t, -1);
+                    int row = t * n;
+                    for (int s = 0; s < n; s++) {
+                        int d = search.distance(s);
+                        int slot = search.predecessorSlot(s);
+                        distances.put(row + s, d == DijkstraSearch.UNREACHABLE ? -1 : d);
+                        hops.put(row + s, slot < 0 ? NO_HOP : (char) (reverse[slot] - graph.offsets[s]));
+                    }
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("All-pairs search failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building an all-pairs table", e);
+        } finally {
+            pool.shutdown();
+        }
+        return new AllPairsTable(graph, distances, hops, System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the shortest distance between two towns.
+     *
+     * @param source      starting town
+     * @param destination ending town
+     * @return the distance, or -1 if either town is unknown or they are disconnected
+     */
+    public int getDistance(Town source, Town destination) {
+        int s = graph.idOf(source);
+        int t = graph.idOf(destination);
+        return s < 0 || t < 0 ? -1 : distances.get(t * graph.size() + s);
+    }
+
+    /**
+     * Finds the shortest path between two towns by following next hops.
+     *
+     * @param source      starting town
+     * @param destination ending town
+     * @return the path, which is not found if either town is unknown or they are disconnected
+     */
+    public PathResult findPath(Town source, Town destination) {
+        int s = graph.idOf(source);
+        int t = graph.idOf(destination);
+        if (s < 0 || t < 0) return PathResult.notFound(0);
+        return run(s, t);
+    }
+
+    /**
+     * Rebuilds the path between two town ids from row {@code target} of the table.
+     *
+     * @param source the source id
+     * @param target the target id
+     * @return the path found
+     */
+    PathResult run(int source, int target) {
+        int row = target * graph.size();
+        int distance = distances.get(row + source);
+        if (distance < 0) return PathResult.notFound(0);
+        List<Town> towns = new ArrayList<>();
+        List<Road> roads = new ArrayList<>();
+        towns.add(graph.towns[source]);
+        for (int v = source; v != target; ) {
+            int slot = graph.offsets[v] + hops.get(row + v);
+            roads.add(graph.roads[slot]);
+            v = graph.targets[slot];
+            towns.add(graph.towns[v]);
+        }
+        return new PathResult(towns.toArray(new Town[0]), roads.toArray(new Road[0]), distance, 0);
+    }
+
+    /**
+     * @return the number of towns in the table
+     */
+    public int getTownCount() {
+        return graph.size();
+    }
+
+    /**
+     * @return the preprocessing time in nanoseconds
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Returns a summary of the table's size and build time.
+     *
+     * @return the statistics as a string
+     */
+    @Override
+    public String toString() {
+        long n = graph.size();
+        return String.format("AllPairsTable[towns=%d, bytes=%d, build=%.1f ms]", n, n * n * 6, buildNanos / 1e6);
+    }
+}
@@ -0,0 +1,65 @@
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests all-pairs tables on the heap and in a memory-mapped file.
+ * 
+ * @author Hussain Mohammad
+ */
+public class AllPairsTableTest {
+	private Graph graph;
+	private Town[] town;
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[6];
+		for (int i = 0; i < 6; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[0], town[1], 4, "Road_1");
+		graph.addEdge(town[0], town[2], 1, "Road_2");
+		graph.addEdge(town[2], town[1], 2, "Road_3");
+		graph.addEdge(town[1], town[3], 5, "Road_4");
+		graph.addEdge(town[3], town[4], 0, "Road_5");
+		file = File.createTempFile("pairs", ".bin");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file.toPath());
+		graph = null;
+	}
+
+	@Test
+	public void testHeapTable() {
+		AllPairsTable table = AllPairsTable.build(graph);
+		assertEquals(8, table.getDistance(town[4], town[0]));
+		assertEquals(-1, table.getDistance(town[0], town[5]));
+		PathResult path = table.findPath(town[4], town[0]);
+		assertEquals(Arrays.asList(town[4], town[3], town[1], town[2], town[0]), path.getTowns());
+		assertEquals(8, path.getDistance());
+		assertFalse(table.findPath(town[5], town[1]).isFound());
+		assertEquals(Arrays.asList(town[2]), table.findPath(town[2], town[2]).getTowns());
+	}
+
+	@Test
+	public void testMappedTable() throws Exception {
+		AllPairsTable table = AllPairsTable.build(graph, file.toPath());
+		assertEquals(6L * 6 * 6, Files.size(file.toPath()));
+		for (Town source : town) {
+			for (Town destination : town) {
+				assertEquals(graph.findPath(source, destination).getDistance(), table.getDistance(source, destination));
+			}
+		}
+	}
+}
@@ -0,0 +1,152 @@
+import java.util.Arrays;
+
+/**
+ * Bidirectional Dijkstra over a {@link RoutingGraph}. A forward search from the source and a
+ * backward search from the target are advanced alternately, always expanding the side with the
+ * smaller queue. The best meeting distance {@code mu} is updated whenever a relaxed road touches
+ * a town already reached by the other side, and the search stops once the two queue minima add up
+ * to at least {@code mu}, at which point no shorter path can exist.
+ * 
+ * @author Hussain Mohammad
+ */
+final class BidirectionalSearch {
+
+    private final RoutingGraph graph;
+    private final Frontier forward;
+    private final Frontier backward;
+    private long best;
+    private int meetForward;
+    private int meetBackward;
+    private int meetSlot;
+
+    /**
+     * Creates a search bound to a routing graph.
+     * 
+     * @param graph the graph to search
+     */
+    BidirectionalSearch(RoutingGraph graph) {
+        this.graph = graph;
+        forward = new Frontier(graph.size());
+        backward = new Frontier(graph.size());
+    }
+
+    /**
+     * Finds a shortest path between two towns.
+     * 
+     * @param source the source id
+     * @param target the target id
+     * @return the path found
+     */
+    PathResult run(int source, int target) {
+        if (source == target) {
+            return new PathResult(new Town[] { graph.towns[source] }, new Road[0], 0, 1);
+        }
+        forward.start(source);
+        backward.start(target);
+        best = Long.MAX_VALUE;
+        meetSlot = -1;
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            if ((long) forward.heap.peekKey() + backward.heap.peekKey() >= best) break;
+            if (forward.heap.size() <= backward.heap.size()) expand(forward, backward, true);
+            else expand(backward, forward, false);
+        }
+        int settled = forward.settled + backward.settled;
+        if (meetSlot < 0) return PathResult.notFound(settled);
+        return assemble(settled);
+    }
+
+    private void expand(Frontier side, Frontier other, boolean isForward) {
+        int u = side.heap.poll();
+        side.settled++;
+        int du = side.distance(u);
+        int[] offsets = graph.offsets, targets = graph.targets, weights = graph.weights;
+        for (int slot = offsets[u], end = offsets[u + 1]; slot < end; slot++) {
+            int v = targets[slot];
+            long candidate = (long) du + weights[slot];
+            if (candidate < side.distance(v)) {
+                side.reach(v, (int) candidate, u, slot);
+                side.heap.insertOrDecrease(v, (int) candidate);
+            }
+            int dv = other.distance(v);
+            if (dv != DijkstraSearch.UNREACHABLE && candidate + dv < best) {
+                best = candidate + dv;
+                meetForward = isForward ? u : v;
+                meetBackward = isForward ? v : u;
+                meetSlot = slot;
+            }
+        }
+    }
+
+    private PathResult assemble(int settled) {
+        int forwardHops = forward.hops(meetForward);
+        int backwardHops = backward.hops(meetBackward);
+        Town[] towns = new Town[forwardHops + backwardHops + 2];
+        Road[] roads = new Road[forwardHops + backwardHops + 1];
+        int v = meetForward;
+        for (int i = forwardHops; i > 0; i--) {
+            towns[i] = graph.towns[v];
+            roads[i - 1] = graph.roads[forward.predSlot[v]];
+            v = forward.pred[v];
+        }
+        towns[0] = graph.towns[v];
+        roads[forwardHops] = graph.roads[meetSlot];
+        v = meetBackward;
+        for (int i = forwardHops + 1; i < towns.length; i++) {
+            towns[i] = graph.towns[v];
+            if (i < roads.length) {
+                roads[i] = graph.roads[backward.predSlot[v]];
+                v = backward.pred[v];
+            }
+        }
+        return new PathResult(towns, roads, (int) best, settled);
+    }
+
+    /**
+     * The queue and labels of one search direction.
+     */
+    private static final class Frontier {
+        final IndexedMinHeap heap;
+        final int[] dist;
+        final int[] pred;
+        final int[] predSlot;
+        final int[] stamp;
+        int epoch;
+        int settled;
+
+        Frontier(int n) {
+            heap = new IndexedMinHeap(n);
+            dist = new int[n];
+            pred = new int[n];
+            predSlot = new int[n];
+            stamp = new int[n];
+        }
+
+        void start(int origin) {
+            if (++epoch == 0) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            heap.clear();
+            settled = 0;
+            reach(origin, 0, -1, -1);
+            heap.insertOrDecrease(origin, 0);
+        }
+
+        int distance(int node) {
+            return stamp[node] == epoch ? dist[node] : DijkstraSearch.UNREACHABLE;
+        }
+
+        void reach(int node, int distance, int from, int slot) {
+            stamp[node] = epoch;
+            dist[node] = distance;
+            pred[node] = from;
+            predSlot[node] = slot;
+        }
+
+        int hops(int node) {
+            int hops = 0;
+            for (int v = node; pred[v] >= 0; v = pred[v]) hops++;
+            return hops;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe graph of towns and roads for serving route queries from many threads at once.
+ * <p>
+ * The towns and roads live in a {@link Graph} guarded by a {@link StampedLock}. Edits take the
+ * write lock, so they are applied one at a time and never seen half-done. Lookups such as
+ * {@link #getEdge} and {@link #containsVertex} take the read lock, which readers share; they are
+ * not tried optimistically, because a lookup racing a write could walk a hash table mid-resize.
+ * Methods that return sets hand back copies taken under the read lock.
+ * <p>
+ * Routing never holds the lock. The first query after an edit compiles the graph into an immutable
+ * {@link GraphVersion}, which is published to every thread and answers queries until the next
+ * edit. Each thread searches it with its own distance arrays and heaps, so queries never contend
+ * with each other, and a query that started before an edit finishes on the graph as it was.
+ *
+ * @author Hussain Mohammad
+ */
+public final class ConcurrentGraph implements GraphInterface<Town, Road> {
+
+    private static final int LANDMARK_COUNT = 8;
+
+    private final Graph graph = new Graph();
+    private final StampedLock lock = new StampedLock();
+    private volatile GraphVersion current;
+    private volatile RoutingMode routingMode = RoutingMode.DIJKSTRA;
+
+    /**
+     * Retrieves the road connecting two towns, if it exists.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return the connecting road, or null if none exists
+     */
+    @Override
+    public Road getEdge(Town sourceVertex, Town destinationVertex) {
+        return read(() -> graph.getEdge(sourceVertex, destinationVertex));
+    }
+
+    /**
+     * Adds a road between two towns, adding the towns if needed. The towns and the road are added
+     * under one write lock, so no reader sees the towns without the road.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @param distance          road distance
+     * @param description       road name
+     * @return the new road, or null if a road of the same name already joins the towns
+     * @throws NullPointerException     if either town is null
+     * @throws IllegalArgumentException if the distance is negative or the name is null or empty;
+     *                                  nothing is added
+     */
+    @Override
+    public Road addEdge(Town sourceVertex, Town destinationVertex, int distance, String description) {
+        Objects.requireNonNull(sourceVertex, "Source town cannot be null");
+        Objects.requireNonNull(destinationVertex, "Destination town cannot be null");
+        if (description == null || description.isEmpty()) {
+            throw new IllegalArgumentException("Road name cannot be null or empty");
+        }
+        if (distance < 0) throw new IllegalArgumentException("Distance cannot be negative");
+        long stamp = lock.writeLock();
+        boolean added = false;
+        try {
+            added = graph.addVertex(sourceVertex) | graph.addVertex(destinationVertex);
+            Road road = graph.addEdge(sourceVertex, destinationVertex, distance, description);
+            if (road != null) current = null;
+            return road;
+        } finally {
+            if (added) current = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds a town to the graph.
+     *
+     * @param town the town to add
+     * @return true if the town was added, false if it was already present
+     */
+    @Override
+    public boolean addVertex(Town town) {
+        long stamp = lock.writeLock();
+        try {
+            boolean added = graph.addVertex(town);
+            if (added) current = null;
+            return added;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Finds the town with the given name.
+     *
+     * @param name the town name
+     * @return the town, or null if there is none
+     */
+    public Town getTown(String name) {
+        return read(() -> graph.getTown(name));
+    }
+
+    /**
+     * Checks if a road exists between two towns.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return true if the road exists, false otherwise
+     */
+    @Override
+    public boolean containsEdge(Town sourceVertex, Town destinationVertex) {
+        return read(() -> graph.containsEdge(sourceVertex, destinationVertex));
+    }
+
+    /**
+     * Checks if a town exists in the graph.
+     *
+     * @param town the town to check
+     * @return true if the town exists, false otherwise
+     */
+    @Override
+    public boolean containsVertex(Town town) {
+        return read(() -> graph.containsVertex(town));
+    }
+
+    /**
+     * Retrieves all roads in the graph.
+     *
+     * @return a copy of the set of roads
+     */
+    @Override
+    public Set<Road> edgeSet() {
+        long stamp = lock.readLock();
+        try {
+            return new HashSet<>(graph.edgeSet());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Retrieves all roads connected to a specific town.
+     *
+     * @param town the town whose roads are to be retrieved
+     * @return a set of connected roads, empty if the town has none
+     * @throws IllegalArgumentException if the town is not in the graph
+     * @throws NullPointerException     if the town is null
+     */
+    @Override
+    public Set<Road> edgesOf(Town town) {
+        long stamp = lock.readLock();
+        try {
+            return graph.edgesOf(town);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Removes a road from the graph.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @param distance          road distance, checked only if greater than -1
+     * @param description       road name, checked only if not null
+     * @return the removed road, or null if no road was removed
+     */
+    @Override
+    public Road removeEdge(Town sourceVertex, Town destinationVertex, int distance, String description) {
+        long stamp = lock.writeLock();
+        try {
+            Road road = graph.removeEdge(sourceVertex, destinationVertex, distance, description);
+            if (road != null) current = null;
+            return road;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a town and its roads from the graph.
+     *
+     * @param town the town to remove
+     * @return true if the town was removed, false otherwise
+     */
+    @Override
+    public boolean removeVertex(Town town) {
+        long stamp = lock.writeLock();
+        try {
+            boolean removed = graph.removeVertex(town);
+            if (removed) current = null;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Retrieves all towns in the graph.
+     *
+     * @return a copy of the set of towns
+     */
+    @Override
+    public Set<Town> vertexSet() {
+        long stamp = lock.readLock();
+        try {
+            return new HashSet<>(graph.vertexSet());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Finds the shortest path from one town to another.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return an ArrayList of Strings describing the path, empty if there is none
+     */
+    @Override
+    public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex) {
+        return new ArrayList<>(findPath(sourceVertex, destinationVertex).getSteps());
+    }
+
+    /**
+     * Finds the shortest path from one town to another as a structured result, using the
+     * configured routing mode.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the path, which is not found if either town is missing or they are disconnected
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex) {
+        return findPath(sourceVertex, destinationVertex, routingMode);
+    }
+
+    /**
+     * Finds the shortest path from one town to another with the given search strategy.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @param mode              the search strategy to use for this query
+     * @return the path, which is not found if either town is missing or they are disconnected
+     * @throws NullPointerException if the mode is null
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex, RoutingMode mode) {
+        return snapshot().findPath(sourceVertex, destinationVertex, mode);
+    }
+
+    /**
+     * Gets the search strategy used by {@link #shortestPath} and {@link #findPath(Town, Town)}.
+     *
+     * @return the configured routing mode
+     */
+    public RoutingMode getRoutingMode() {
+        return routingMode;
+    }
+
+    /**
+     * Sets the search strategy used by {@link #shortestPath} and {@link #findPath(Town, Town)}
+     * for every thread.
+     *
+     * @param routingMode the routing mode to use
+     * @throws NullPointerException if the mode is null
+     */
+    public void setRoutingMode(RoutingMode routingMode) {
+        this.routingMode = Objects.requireNonNull(routingMode, "Routing mode cannot be null");
+    }
+
+    /**
+     * Builds whatever the given routing mode needs for the current graph now, so the first
+     * queries after a batch of edits do not pay for it.
+     *
+     * @param mode the routing mode to prepare
+     * @throws NullPointerException if the mode is null
+     */
+    public void prepare(RoutingMode mode) {
+        snapshot().prepare(mode);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a town over the whole graph. The distances are kept in the
+     * calling thread's search state, where the next query from the same thread replaces them.
+     *
+     * @param sourceVertex starting town
+     * @throws IllegalArgumentException if the town is not in the graph
+     */
+    @Override
+    public void dijkstraShortestPath(Town sourceVertex) {
+        snapshot().dijkstraFrom(sourceVertex);
+    }
+
+    /**
+     * Runs a lookup against the graph under the read lock.
+     */
+    private <T> T read(Supplier<T> lookup) {
+        long stamp = lock.readLock();
+        try {
+            return lookup.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Gets the current version of the graph, compiling it under the read lock if an edit
+     * discarded it. Writers clear it under the write lock, so a version is never published after
+     * the edit that made it stale. The version keeps the default routing mode; this graph passes
+     * its own mode to every query.
+     *
+     * @return an immutable version of the graph as of the last edit
+     */
+    public GraphVersion snapshot() {
+        GraphVersion version = current;
+        if (version != null) return version;
+        long stamp = lock.readLock();
+        try {
+            version = current;
+            if (version == null) {
+                version = new GraphVersion(RoutingGraph.of(graph), graph.getVersion(), RoutingMode.DIJKSTRA,
+                        LANDMARK_COUNT);
+                current = version;
+            }
+            return version;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that ConcurrentGraph answers route queries from several threads while it is being edited.
+ * 
+ * @author Hussain Mohammad
+ */
+public class ConcurrentGraphTest {
+	private ConcurrentGraph graph;
+	private Town[] town;
+	private ExecutorService pool;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new ConcurrentGraph();
+		town = new Town[10];
+		for (int i = 0; i < 10; i++) {
+			town[i] = new Town("Town_" + i);
+		}
+		for (int i = 0; i < 9; i++) {
+			graph.addEdge(town[i], town[i + 1], 2, "Road_" + i);
+		}
+		graph.addEdge(town[0], town[9], 30, "Bypass");
+		pool = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		pool.shutdownNow();
+		graph = null;
+	}
+
+	@Test
+	public void testParallelQueries() throws Exception {
+		List<Future<Integer>> results = new ArrayList<>();
+		for (RoutingMode mode : RoutingMode.values()) {
+			results.add(pool.submit(() -> {
+				int total = 0;
+				for (int i = 0; i < 200; i++) {
+					total += graph.findPath(town[0], town[9], mode).getDistance();
+				}
+				return total;
+			}));
+		}
+		for (Future<Integer> result : results) {
+			assertEquals(200 * 18, (int) result.get());
+		}
+	}
+
+	@Test
+	public void testQueriesDuringEdits() throws Exception {
+		Future<?> writer = pool.submit(() -> {
+			for (int i = 0; i < 200; i++) {
+				graph.removeEdge(town[4], town[5], -1, null);
+				graph.addEdge(town[4], town[5], 2, "Road_4");
+			}
+		});
+		Future<Boolean> reader = pool.submit(() -> {
+			for (int i = 0; i < 200; i++) {
+				int distance = graph.findPath(town[0], town[9]).getDistance();
+				if (distance != 18 && distance != 30) return false;
+			}
+			return true;
+		});
+		writer.get();
+		assertTrue(reader.get());
+		assertEquals(18, graph.findPath(town[0], town[9]).getDistance());
+		assertEquals(10, graph.edgeSet().size());
+	}
+
+	@Test
+	public void testLookups() {
+		assertSame(town[3], graph.getTown("Town_3"));
+		assertTrue(graph.containsEdge(town[3], town[4]));
+		assertFalse(graph.containsEdge(town[3], town[5]));
+		assertTrue(graph.removeVertex(town[3]));
+		assertFalse(graph.containsVertex(town[3]));
+		assertFalse(graph.findPath(town[0], town[3]).isFound());
+		assertEquals(30, graph.findPath(town[0], town[9]).getDistance());
+	}
+
+	@Test
+	public void testInvalidRoadAddsNoTowns() {
+		Town stray = new Town("Stray");
+		try {
+			graph.addEdge(town[0], stray, -1, "Road_X");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			graph.addEdge(town[0], stray, 1, "");
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException expected) {
+		}
+		assertFalse(graph.containsVertex(stray));
+		assertFalse(graph.findPath(town[0], stray).isFound());
+	}
+}
@@ -0,0 +1,549 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Contraction Hierarchies index over a snapshot of a {@link Graph}. Preprocessing contracts the
+ * towns one at a time in order of importance, adding a shortcut road between two neighbours of the
+ * contracted town whenever the only shortest connection between them ran through it. A query then
+ * runs Dijkstra from both ends that only ever moves to more important towns, which settles a tiny
+ * fraction of the graph. Shortcuts remember the two roads they replace, so every path is unpacked
+ * back into the original {@link Road} objects.
+ * <p>
+ * The index is immutable once built and does not follow later edits to the graph; build a new one
+ * (or let {@link Graph} rebuild it on the next {@link RoutingMode#CONTRACTION_HIERARCHY} query)
+ * after a batch of changes. {@link #findPath} reuses one set of search arrays, so it must not be
+ * called from several threads at once; concurrent callers such as {@link ConcurrentGraph} give each
+ * thread its own {@link Query} instead.
+ *
+ * @author Hussain Mohammad
+ */
+public final class ContractionHierarchy {
+
+    private static final int SIMULATION_SETTLE_LIMIT = 64;
+    private static final int CONTRACTION_SETTLE_LIMIT = 512;
+
+    private final RoutingGraph graph;
+    private final int[] rank;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final int[] edgeMiddle;
+    private final int[] edgeFirst;
+    private final int[] edgeSecond;
+    private final int[] edgeSlot;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upEdges;
+    private final int shortcutCount;
+    private final long buildNanos;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private final LongAdder settledTotal = new LongAdder();
+    private Query query;
+
+    private ContractionHierarchy(RoutingGraph graph, Contractor contractor, long buildNanos) {
+        this.graph = graph;
+        this.rank = contractor.rank;
+        this.edgeFrom = Arrays.copyOf(contractor.from, contractor.edgeCount);
+        this.edgeTo = Arrays.copyOf(contractor.to, contractor.edgeCount);
+        this.edgeMiddle = Arrays.copyOf(contractor.middle, contractor.edgeCount);
+        this.edgeFirst = Arrays.copyOf(contractor.first, contractor.edgeCount);
+        this.edgeSecond = Arrays.copyOf(contractor.second, contractor.edgeCount);
+        this.edgeSlot = Arrays.copyOf(contractor.slot, contractor.edgeCount);
+        this.shortcutCount = contractor.shortcutCount;
+        this.buildNanos = buildNanos;
+
+        int n = graph.size();
+        upOffsets = new int[n + 1];
+        for (int e = 0; e < contractor.edgeCount; e++) {
+            if (!contractor.dead[e]) upOffsets[lower(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) upOffsets[v + 1] += upOffsets[v];
+        int m = upOffsets[n];
+        upTargets = new int[m];
+        upWeights = new int[m];
+        upEdges = new int[m];
+        int[] fill = Arrays.copyOf(upOffsets, n);
+        for (int e = 0; e < contractor.edgeCount; e++) {
+            if (contractor.dead[e]) continue;
+            int low = lower(e);
+            int slot = fill[low]++;
+            upTargets[slot] = low == edgeFrom[e] ? edgeTo[e] : edgeFrom[e];
+            upWeights[slot] = contractor.weight[e];
+            upEdges[slot] = e;
+        }
+    }
+
+    /**
+     * Builds a hierarchy from the current state of a graph.
+     *
+     * @param graph the graph to preprocess
+     * @return the contraction hierarchy
+     */
+    public static ContractionHierarchy build(Graph graph) {
+        return build(RoutingGraph.of(graph));
+    }
+
+    /**
+     * Builds a hierarchy from a compiled routing graph.
+     *
+     * @param graph the graph to preprocess
+     * @return the contraction hierarchy
+     */
+    static ContractionHierarchy build(RoutingGraph graph) {
+        long start = System.nanoTime();
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+        return new ContractionHierarchy(graph, contractor, System.nanoTime() - start);
+    }
+
+    /**
+     * Finds a shortest path between two towns.
+     *
+     * @param source starting town
+     * @param destination ending town
+     * @return the path, which is not found if either town is missing or they are disconnected
+     */
+    public PathResult findPath(Town source, Town destination) {
+        int s = graph.idOf(source);
+        int t = graph.idOf(destination);
+        if (s < 0 || t < 0) return PathResult.notFound(0);
+        return run(s, t);
+    }
+
+    /**
+     * Finds a shortest path between two town ids with the upward bidirectional search, using the
+     * hierarchy's own search arrays.
+     *
+     * @param source the source id
+     * @param target the target id
+     * @return the path found
+     */
+    PathResult run(int source, int target) {
+        if (query == null) query = new Query();
+        return query.run(source, target);
+    }
+
+    /**
+     * Creates search arrays for one thread's queries. The hierarchy itself is only read during a
+     * query, so any number of threads may each use their own {@code Query} at once.
+     *
+     * @return a new query bound to this hierarchy
+     */
+    Query newQuery() {
+        return new Query();
+    }
+
+    private int expand(int edge, int from, List<Town> towns, List<Road> roads) {
+        int[] edges = new int[16];
+        int[] starts = new int[16];
+        int top = 0;
+        edges[top] = edge;
+        starts[top++] = from;
+        int at = from;
+        while (top > 0) {
+            int e = edges[--top];
+            int start = starts[top];
+            if (edgeSlot[e] >= 0) {
+                roads.add(graph.roads[edgeSlot[e]]);
+                at = other(e, start);
+                towns.add(graph.towns[at]);
+                continue;
+            }
+            if (top + 2 > edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            boolean fromStart = start == edgeFrom[e];
+            int near = fromStart ? edgeFirst[e] : edgeSecond[e];
+            int far = fromStart ? edgeSecond[e] : edgeFirst[e];
+            edges[top] = far;
+            starts[top++] = edgeMiddle[e];
+            edges[top] = near;
+            starts[top++] = start;
+        }
+        return at;
+    }
+
+    private int other(int edge, int node) {
+        return edgeFrom[edge] == node ? edgeTo[edge] : edgeFrom[edge];
+    }
+
+    private int lower(int edge) {
+        return rank[edgeFrom[edge]] < rank[edgeTo[edge]] ? edgeFrom[edge] : edgeTo[edge];
+    }
+
+    /**
+     * @return the number of shortcut roads added during preprocessing
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * @return the number of roads in the graph the hierarchy was built from
+     */
+    public int getRoadCount() {
+        return edgeFrom.length - shortcutCount;
+    }
+
+    /**
+     * @return the preprocessing time in nanoseconds
+     */
+    public long getBuildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * @return the number of queries answered so far
+     */
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    /**
+     * @return the average query time in nanoseconds, or 0 if there were no queries
+     */
+    public long getAverageQueryNanos() {
+        long count = queryCount.sum();
+        return count == 0 ? 0 : queryNanos.sum() / count;
+    }
+
+    /**
+     * @return the average number of towns settled per query, or 0 if there were no queries
+     */
+    public double getAverageSettled() {
+        long count = queryCount.sum();
+        return count == 0 ? 0 : (double) settledTotal.sum() / count;
+    }
+
+    /**
+     * Returns a summary of the build and query statistics.
+     *
+     * @return the statistics as a string
+     */
+    @Override
+    public String toString() {
+        return String.format("ContractionHierarchy[towns=%d, roads=%d, shortcuts=%d, build=%.1f ms, "
+                + "queries=%d, avgQuery=%.1f us, avgSettled=%.1f]", graph.size(), getRoadCount(),
+                shortcutCount, buildNanos / 1e6, getQueryCount(), getAverageQueryNanos() / 1e3, getAverageSettled());
+    }
+
+    /**
+     * The search state of one upward bidirectional query: a heap, distances, the edge each town was
+     * reached by and an epoch stamp for each direction.
+     */
+    final class Query {
+        private final IndexedMinHeap forwardHeap;
+        private final IndexedMinHeap backwardHeap;
+        private final int[] forwardDist;
+        private final int[] backwardDist;
+        private final int[] forwardEdge;
+        private final int[] backwardEdge;
+        private final int[] forwardStamp;
+        private final int[] backwardStamp;
+        private int epoch;
+
+        private Query() {
+            int n = graph.size();
+            forwardHeap = new IndexedMinHeap(n);
+            backwardHeap = new IndexedMinHeap(n);
+            forwardDist = new int[n];
+            backwardDist = new int[n];
+            forwardEdge = new int[n];
+            backwardEdge = new int[n];
+            forwardStamp = new int[n];
+            backwardStamp = new int[n];
+        }
+
+        /**
+         * Finds a shortest path between two town ids.
+         *
+         * @param source the source id
+         * @param target the target id
+         * @return the path found
+         */
+        PathResult run(int source, int target) {
+            long start = System.nanoTime();
+            if (++epoch == 0) {
+                Arrays.fill(forwardStamp, 0);
+                Arrays.fill(backwardStamp, 0);
+                epoch = 1;
+            }
+            forwardHeap.clear();
+            backwardHeap.clear();
+            forwardStamp[source] = epoch;
+            forwardDist[source] = 0;
+            forwardEdge[source] = -1;
+            forwardHeap.insertOrDecrease(source, 0);
+            backwardStamp[target] = epoch;
+            backwardDist[target] = 0;
+            backwardEdge[target] = -1;
+            backwardHeap.insertOrDecrease(target, 0);
+
+            long best = Long.MAX_VALUE;
+            int meet = -1;
+            int settled = 0;
+            boolean forwardTurn = true;
+            while (true) {
+                boolean forwardOpen = !forwardHeap.isEmpty() && forwardHeap.peekKey() < best;
+                boolean backwardOpen = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+                if (!forwardOpen && !backwardOpen) break;
+                boolean forward = forwardOpen && (forwardTurn || !backwardOpen);
+                forwardTurn = !forwardTurn;
+                IndexedMinHeap heap = forward ? forwardHeap : backwardHeap;
+                int[] dist = forward ? forwardDist : backwardDist;
+                int[] via = forward ? forwardEdge : backwardEdge;
+                int[] stamp = forward ? forwardStamp : backwardStamp;
+                int[] otherDist = forward ? backwardDist : forwardDist;
+                int[] otherStamp = forward ? backwardStamp : forwardStamp;
+
+                int u = heap.poll();
+                settled++;
+                int du = dist[u];
+                if (otherStamp[u] == epoch && (long) du + otherDist[u] < best) {
+                    best = (long) du + otherDist[u];
+                    meet = u;
+                }
+                for (int slot = upOffsets[u], end = upOffsets[u + 1]; slot < end; slot++) {
+                    int v = upTargets[slot];
+                    long candidate = (long) du + upWeights[slot];
+                    if (stamp[v] != epoch || candidate < dist[v]) {
+                        stamp[v] = epoch;
+                        dist[v] = (int) candidate;
+                        via[v] = upEdges[slot];
+                        heap.insertOrDecrease(v, (int) candidate);
+                    }
+                }
+            }
+
+            PathResult result = meet < 0 ? PathResult.notFound(settled) : unpack(source, target, meet, (int) best, settled);
+            queryCount.increment();
+            queryNanos.add(System.nanoTime() - start);
+            settledTotal.add(settled);
+            return result;
+        }
+
+        private PathResult unpack(int source, int target, int meet, int distance, int settled) {
+            List<Integer> upward = new ArrayList<>();
+            for (int v = meet; forwardEdge[v] >= 0; v = other(forwardEdge[v], v)) upward.add(forwardEdge[v]);
+            List<Town> towns = new ArrayList<>();
+            List<Road> roads = new ArrayList<>();
+            towns.add(graph.towns[source]);
+            int at = source;
+            for (int i = upward.size() - 1; i >= 0; i--) at = expand(upward.get(i), at, towns, roads);
+            for (int v = meet; backwardEdge[v] >= 0; v = other(backwardEdge[v], v)) at = expand(backwardEdge[v], at, towns, roads);
+            return new PathResult(towns.toArray(new Town[0]), roads.toArray(new Road[0]), distance, settled);
+        }
+    }
+
+    /**
+     * The mutable state of the preprocessing step: the remaining graph, including shortcuts, and
+     * the scratch space for witness searches.
+     */
+    private static final class Contractor {
+        final RoutingGraph graph;
+        final int n;
+        final int[] rank;
+        final boolean[] contracted;
+        final int[] deletedNeighbours;
+        final int[][] adjacency;
+        final int[] degree;
+        int edgeCount;
+        int shortcutCount;
+        int[] from, to, weight, middle, first, second, slot;
+        boolean[] dead;
+
+        final IndexedMinHeap witnessHeap;
+        final int[] witnessDist;
+        final int[] witnessStamp;
+        int witnessEpoch;
+        int[] neighbours = new int[8];
+        int[] neighbourEdges = new int[8];
+
+        Contractor(RoutingGraph graph) {
+            this.graph = graph;
+            n = graph.size();
+            rank = new int[n];
+            contracted = new boolean[n];
+            deletedNeighbours = new int[n];
+            adjacency = new int[n][];
+            degree = new int[n];
+            for (int v = 0; v < n; v++) adjacency[v] = new int[4];
+            int capacity = Math.max(16, graph.targets.length);
+            from = new int[capacity];
+            to = new int[capacity];
+            weight = new int[capacity];
+            middle = new int[capacity];
+            first = new int[capacity];
+            second = new int[capacity];
+            slot = new int[capacity];
+            dead = new boolean[capacity];
+            witnessHeap = new IndexedMinHeap(n);
+            witnessDist = new int[n];
+            witnessStamp = new int[n];
+            for (int u = 0; u < n; u++) {
+                for (int s = graph.offsets[u]; s < graph.offsets[u + 1]; s++) {
+                    int v = graph.targets[s];
+                    if (u < v) addOrImprove(u, v, graph.weights[s], -1, -1, -1, s);
+                }
+            }
+        }
+
+        void contractAll() {
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) queue.insertOrDecrease(v, priority(v));
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                int p = priority(v);
+                if (!queue.isEmpty() && p > queue.peekKey()) {
+                    queue.insertOrDecrease(v, p);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                rank[v] = order++;
+                int count = collectNeighbours(v);
+                for (int i = 0; i < count; i++) deletedNeighbours[neighbours[i]]++;
+            }
+        }
+
+        private int priority(int v) {
+            int neighbourCount = collectNeighbours(v);
+            return 2 * contract(v, true) - neighbourCount + deletedNeighbours[v];
+        }
+
+        /**
+         * Counts, and unless simulating adds, the shortcuts needed to contract a town.
+         */
+        private int contract(int v, boolean simulate) {
+            int count = collectNeighbours(v);
+            int[] nodes = Arrays.copyOf(neighbours, count);
+            int[] edges = Arrays.copyOf(neighbourEdges, count);
+            int shortcuts = 0;
+            for (int i = 0; i < count - 1; i++) {
+                int u = nodes[i];
+                long limit = 0;
+                for (int j = i + 1; j < count; j++) {
+                    limit = Math.max(limit, (long) weight[edges[i]] + weight[edges[j]]);
+                }
+                witnessSearch(u, v, limit, simulate ? SIMULATION_SETTLE_LIMIT : CONTRACTION_SETTLE_LIMIT);
+                for (int j = i + 1; j < count; j++) {
+                    int w = nodes[j];
+                    long through = (long) weight[edges[i]] + weight[edges[j]];
+                    if (witnessStamp[w] == witnessEpoch && witnessDist[w] <= through) continue;
+                    shortcuts++;
+                    if (!simulate) {
+                        addOrImprove(u, w, (int) through, v, edges[i], edges[j], -1);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        private void witnessSearch(int source, int skip, long limit, int settleLimit) {
+            if (++witnessEpoch == 0) {
+                Arrays.fill(witnessStamp, 0);
+                witnessEpoch = 1;
+            }
+            witnessHeap.clear();
+            witnessStamp[source] = witnessEpoch;
+            witnessDist[source] = 0;
+            witnessHeap.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled++ < settleLimit) {
+                if (witnessHeap.peekKey() > limit) break;
+                int u = witnessHeap.poll();
+                int du = witnessDist[u];
+                for (int k = 0; k < degree[u]; k++) {
+                    int e = adjacency[u][k];
+                    int x = from[e] == u ? to[e] : from[e];
+                    if (x == skip || contracted[x]) continue;
+                    long candidate = (long) du + weight[e];
+                    if (candidate > limit) continue;
+                    if (witnessStamp[x] != witnessEpoch || candidate < witnessDist[x]) {
+                        witnessStamp[x] = witnessEpoch;
+                        witnessDist[x] = (int) candidate;
+                        witnessHeap.insertOrDecrease(x, (int) candidate);
+                    }
+                }
+            }
+        }
+
+        private int collectNeighbours(int v) {
+            int count = 0;
+            for (int k = 0; k < degree[v]; k++) {
+                int e = adjacency[v][k];
+                int x = from[e] == v ? to[e] : from[e];
+                if (contracted[x] || x == v) continue;
+                if (count == neighbours.length) {
+                    neighbours = Arrays.copyOf(neighbours, count * 2);
+                    neighbourEdges = Arrays.copyOf(neighbourEdges, count * 2);
+                }
+                neighbours[count] = x;
+                neighbourEdges[count++] = e;
+            }
+            return count;
+        }
+
+        /**
+         * Adds an edge between two towns unless an edge at least as short already joins them, in
+         * which case nothing changes; a longer existing edge is retired. A shortcut from u to w
+         * through v records the u-v edge as its first child and the v-w edge as its second.
+         */
+        private void addOrImprove(int u, int w, int length, int via, int firstEdge, int secondEdge, int roadSlot) {
+            for (int k = 0; k < degree[u]; k++) {
+                int e = adjacency[u][k];
+                if ((from[e] == w && to[e] == u) || (from[e] == u && to[e] == w)) {
+                    if (weight[e] <= length) return;
+                    dead[e] = true;
+                    unlink(u, e);
+                    unlink(w, e);
+                    break;
+                }
+            }
+            if (edgeCount == from.length) grow();
+            int e = edgeCount++;
+            from[e] = u;
+            to[e] = w;
+            weight[e] = length;
+            middle[e] = via;
+            first[e] = firstEdge;
+            second[e] = secondEdge;
+            slot[e] = roadSlot;
+            if (roadSlot < 0) shortcutCount++;
+            link(u, e);
+            link(w, e);
+        }
+
+        private void link(int v, int e) {
+            if (degree[v] == adjacency[v].length) adjacency[v] = Arrays.copyOf(adjacency[v], degree[v] * 2);
+            adjacency[v][degree[v]++] = e;
+        }
+
+        private void unlink(int v, int e) {
+            for (int k = 0; k < degree[v]; k++) {
+                if (adjacency[v][k] == e) {
+                    adjacency[v][k] = adjacency[v][--degree[v]];
+                    return;
+                }
+            }
+        }
+
+        private void grow() {
+            int capacity = from.length * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            middle = Arrays.copyOf(middle, capacity);
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+            slot = Arrays.copyOf(slot, capacity);
+            dead = Arrays.copyOf(dead, capacity);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * A graph of towns and roads stored in compressed sparse row form, which is all
+ * {@link DijkstraSearch} reads. Towns have dense ids {@code 0..size-1}, and the roads of town
+ * {@code u} occupy slots {@code firstSlot(u)} up to but not including {@code firstSlot(u + 1)}.
+ * Each undirected road appears once from each end.
+ * <p>
+ * {@link RoutingGraph} keeps the rows in heap arrays next to the {@link Town} and {@link Road}
+ * objects, {@link FrozenGraph} in primitive arrays alone, and {@link OffHeapGraph} in a mapped file;
+ * all three share one search. Towns and roads are only asked for when a path is handed back.
+ *
+ * @author Hussain Mohammad
+ */
+abstract class CsrGraph extends TownIndex {
+
+    /**
+     * @return the number of towns
+     */
+    abstract int size();
+
+    /**
+     * @param town a town id, or {@link #size()} for the end of the last row
+     * @return the first slot of the town's row
+     */
+    abstract int firstSlot(int town);
+
+    /**
+     * @param slot a slot
+     * @return the id of the town the slot's road leads to
+     */
+    abstract int target(int slot);
+
+    /**
+     * @param slot a slot
+     * @return the distance of the slot's road
+     */
+    abstract int weight(int slot);
+
+    /**
+     * @param owner the town whose row holds the slot
+     * @param slot  a slot
+     * @return the road in the slot
+     */
+    abstract Road road(int owner, int slot);
+
+    @Override
+    PathResult path(int node, int distance, int[] pred, int[] predSlot, int settled) {
+        int hops = 0;
+        for (int v = node; pred[v] >= 0; v = pred[v]) hops++;
+        Town[] pathTowns = new Town[hops + 1];
+        Road[] pathRoads = new Road[hops];
+        int v = node;
+        for (int i = hops; i > 0; i--) {
+            pathTowns[i] = town(v);
+            pathRoads[i - 1] = road(pred[v], predSlot[v]);
+            v = pred[v];
+        }
+        pathTowns[0] = town(v);
+        return new PathResult(pathTowns, pathRoads, distance, settled);
+    }
+}
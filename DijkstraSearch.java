@@ -0,0 +1,210 @@
+import java.util.Arrays;
+
+/**
+ * Dijkstra's algorithm over a {@link CsrGraph}. Distances and predecessors live in int arrays
+ * indexed by town id and are reset lazily with an epoch stamp, so one instance can answer many
+ * queries and a relaxation never allocates.
+ * <p>
+ * Graphs shared between threads use {@link #forThread}, which keeps one search per thread in a
+ * single static {@link ThreadLocal}. It is rebound when the thread moves to another graph, keeping
+ * its arrays if they are close to the right size, so a thread holds on to the last graph it
+ * searched and nothing older.
+ * 
+ * @author Hussain Mohammad
+ */
+final class DijkstraSearch {
+
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<DijkstraSearch> LOCAL = new ThreadLocal<>();
+
+    private CsrGraph graph;
+    private final IndexedMinHeap heap;
+    private final int[] dist;
+    private final int[] pred;
+    private final int[] predSlot;
+    private final int[] stamp;
+    private int epoch;
+    private int source = -1;
+    private int settled;
+
+    /**
+     * Creates a search bound to a routing graph.
+     * 
+     * @param graph the graph to search
+     */
+    DijkstraSearch(CsrGraph graph) {
+        this.graph = graph;
+        int n = graph.size();
+        heap = new IndexedMinHeap(n);
+        dist = new int[n];
+        pred = new int[n];
+        predSlot = new int[n];
+        stamp = new int[n];
+    }
+
+    /**
+     * Gets the calling thread's search, bound to a graph. The result must not be handed to
+     * another thread, and is only valid until the thread's next call.
+     * 
+     * @param graph the graph to search
+     * @return the thread's search, bound to the graph
+     */
+    static DijkstraSearch forThread(CsrGraph graph) {
+        DijkstraSearch search = LOCAL.get();
+        if (search == null || !search.bind(graph)) {
+            search = new DijkstraSearch(graph);
+            LOCAL.set(search);
+        }
+        return search;
+    }
+
+    /**
+     * Moves this search to another graph if its arrays fit it without wasting more than half
+     * their length. Every label of the last run is discarded.
+     */
+    private boolean bind(CsrGraph graph) {
+        if (graph == this.graph) return true;
+        int n = graph.size();
+        if (n > dist.length || n < dist.length / 2) return false;
+        this.graph = graph;
+        heap.clear();
+        startEpoch();
+        source = -1;
+        settled = 0;
+        return true;
+    }
+
+    /**
+     * Runs the search from a source. If a target is given the search stops as soon as the target
+     * is settled; otherwise every reachable town is settled.
+     * 
+     * @param source the source id
+     * @param target the target id, or -1 for a full single-source run
+     * @return the number of towns settled
+     */
+    int run(int source, int target) {
+        return run(source, target, null, 0);
+    }
+
+    /**
+     * Runs the search from a source until every marked town has been settled, or every reachable
+     * town if some marked towns are unreachable.
+     * 
+     * @param source  the source id
+     * @param marked  true for each town id whose distance is needed
+     * @param count   the number of marked towns
+     * @return the number of towns settled
+     */
+    int runUntilSettled(int source, boolean[] marked, int count) {
+        return run(source, -1, marked, count);
+    }
+
+    private int run(int source, int target, boolean[] marked, int remaining) {
+        startEpoch();
+        this.source = source;
+        settled = 0;
+        heap.clear();
+        reach(source, 0, -1, -1);
+        heap.insertOrDecrease(source, 0);
+        CsrGraph graph = this.graph;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            if (u == target) break;
+            if (marked != null && marked[u] && --remaining == 0) break;
+            int du = dist[u];
+            for (int slot = graph.firstSlot(u), end = graph.firstSlot(u + 1); slot < end; slot++) {
+                int v = graph.target(slot);
+                long candidate = (long) du + graph.weight(slot);
+                if (candidate < distance(v)) {
+                    reach(v, (int) candidate, u, slot);
+                    heap.insertOrDecrease(v, (int) candidate);
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * @return the source id of the last run
+     */
+    int source() {
+        return source;
+    }
+
+    /**
+     * @return the number of towns settled by the last run
+     */
+    int settled() {
+        return settled;
+    }
+
+    /**
+     * @param node a town id
+     * @return the distance found by the last run, or {@link #UNREACHABLE}
+     */
+    int distance(int node) {
+        return stamp[node] == epoch ? dist[node] : UNREACHABLE;
+    }
+
+    /**
+     * @param node a town id
+     * @return the slot of the road the last run reached the node by, or -1 for the source and
+     *         unreached towns
+     */
+    int predecessorSlot(int node) {
+        return stamp[node] == epoch ? predSlot[node] : -1;
+    }
+
+    /**
+     * Builds the path to a node found by the last run.
+     * 
+     * @param node the destination id
+     * @return the path from the source to the node
+     */
+    PathResult pathTo(int node) {
+        int d = distance(node);
+        if (d == UNREACHABLE) return PathResult.notFound(settled);
+        return graph.path(node, d, pred, predSlot, settled);
+    }
+
+    /**
+     * Copies the labels of the last run into a tree that outlives this search. Only meaningful
+     * after a full run, when every reachable town has been settled.
+     * 
+     * @return the shortest-path tree rooted at the last source
+     */
+    ShortestPathTree tree() {
+        int n = graph.size();
+        int[] treeDist = new int[n];
+        int[] treePred = new int[n];
+        int[] treeSlot = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (stamp[v] == epoch) {
+                treeDist[v] = dist[v];
+                treePred[v] = pred[v];
+                treeSlot[v] = predSlot[v];
+            } else {
+                treeDist[v] = UNREACHABLE;
+                treePred[v] = -1;
+                treeSlot[v] = -1;
+            }
+        }
+        return new ShortestPathTree(graph, source, treeDist, treePred, treeSlot, settled);
+    }
+
+    private void reach(int node, int distance, int from, int slot) {
+        stamp[node] = epoch;
+        dist[node] = distance;
+        pred[node] = from;
+        predSlot[node] = slot;
+    }
+
+    private void startEpoch() {
+        if (++epoch == 0) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest distances between every town of one list and every town of another, such as depots
+ * and customers. One Dijkstra search runs per town on the shorter list; each search stops once it
+ * has settled every town on the other list. The searches are spread over a {@link ForkJoinPool},
+ * each worker reusing one set of search arrays for all of its rows. Because roads are two-way,
+ * searching from the targets gives the same matrix, so the shorter list is always the one searched
+ * from.
+ * <p>
+ * The matrix is stored row-major in a single int array with no per-cell objects. Unknown and
+ * unreachable pairs hold -1.
+ *
+ * @author Hussain Mohammad
+ */
+public final class DistanceMatrix {
+
+    private static final int TASKS_PER_WORKER = 4;
+
+    private final int rows;
+    private final int columns;
+    private final int[] distances;
+    private final long computeNanos;
+
+    private DistanceMatrix(int rows, int columns, int[] distances, long computeNanos) {
+        this.rows = rows;
+        this.columns = columns;
+        this.distances = distances;
+        this.computeNanos = computeNanos;
+    }
+
+    /**
+     * Computes the matrix on the current state of a graph with one worker per processor.
+     *
+     * @param graph   the graph to search
+     * @param sources the towns of each row
+     * @param targets the towns of each column
+     * @return the distance matrix
+     */
+    public static DistanceMatrix compute(Graph graph, List<Town> sources, List<Town> targets) {
+        return compute(graph.snapshot(), sources, targets, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the matrix on a graph version.
+     *
+     * @param version     the version to search
+     * @param sources     the towns of each row
+     * @param targets     the towns of each column
+     * @param parallelism the number of searches run at once
+     * @return the distance matrix
+     * @throws IllegalArgumentException if the parallelism is less than 1
+     */
+    public static DistanceMatrix compute(GraphVersion version, List<Town> sources, List<Town> targets,
+            int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+        long start = System.nanoTime();
+        RoutingGraph graph = version.routingGraph();
+        int rows = sources.size();
+        int columns = targets.size();
+        int[] distances = new int[rows * columns];
+        boolean transposed = columns < rows;
+        int[] from = ids(graph, transposed ? targets : sources);
+        int[] to = ids(graph, transposed ? sources : targets);
+        boolean[] marked = new boolean[graph.size()];
+        int count = 0;
+        for (int id : to) {
+            if (id >= 0 && !marked[id]) {
+                marked[id] = true;
+                count++;
+            }
+        }
+        int markedCount = count;
+        int tasks = Math.min(from.length, parallelism * TASKS_PER_WORKER);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, tasks).parallel().forEach(task -> {
+                DijkstraSearch search = new DijkstraSearch(graph);
+                for (int i = task; i < from.length; i += tasks) {
+                    if (from[i] >= 0) search.runUntilSettled(from[i], marked, markedCount);
+                    for (int j = 0; j < to.length; j++) {
+                        int d = from[i] < 0 || to[j] < 0 ? DijkstraSearch.UNREACHABLE : search.distance(to[j]);
+                        int cell = transposed ? j * columns + i : i * columns + j;
+                        distances[cell] = d == DijkstraSearch.UNREACHABLE ? -1 : d;
+                    }
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Distance matrix search failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing a distance matrix", e);
+        } finally {
+            pool.shutdown();
+        }
+        return new DistanceMatrix(rows, columns, distances, System.nanoTime() - start);
+    }
+
+    private static int[] ids(RoutingGraph graph, List<Town> towns) {
+        int[] ids = new int[towns.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = graph.idOf(towns.get(i));
+        return ids;
+    }
+
+    /**
+     * @return the number of rows, one per source town
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return the number of columns, one per target town
+     */
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * Gets the distance from a source town to a target town.
+     *
+     * @param row    the index of the source town
+     * @param column the index of the target town
+     * @return the distance, or -1 if either town is unknown or they are disconnected
+     * @throws IndexOutOfBoundsException if either index is out of range
+     */
+    public int get(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("No cell (" + row + ", " + column + ") in a " + rows + "x" + columns + " matrix");
+        }
+        return distances[row * columns + column];
+    }
+
+    /**
+     * @return a copy of the matrix, row-major: cell (i, j) is at {@code i * getColumnCount() + j}
+     */
+    public int[] toArray() {
+        return distances.clone();
+    }
+
+    /**
+     * @return the time taken to compute the matrix in nanoseconds
+     */
+    public long getComputeNanos() {
+        return computeNanos;
+    }
+}
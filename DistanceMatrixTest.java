@@ -0,0 +1,64 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests many-to-many distance matrices against single-source distances.
+ * 
+ * @author Hussain Mohammad
+ */
+public class DistanceMatrixTest {
+	private Graph graph;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[8];
+		for (int i = 0; i < 8; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		for (int i = 0; i < 6; i++) {
+			graph.addEdge(town[i], town[i + 1], i + 1, "Road_" + i);
+		}
+		graph.addEdge(town[0], town[6], 4, "Ring");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+	}
+
+	@Test
+	public void testMatchesSingleSource() {
+		List<Town> sources = Arrays.asList(town[0], town[3], town[7]);
+		List<Town> targets = Arrays.asList(town);
+		assertMatchesSingleSource(sources, targets);
+		assertMatchesSingleSource(targets, sources);
+	}
+
+	@Test
+	public void testUnknownTowns() {
+		DistanceMatrix matrix = DistanceMatrix.compute(graph, Arrays.asList(new Town("Nowhere"), town[0]),
+				Arrays.asList(town[1], town[7]));
+		assertArrayEquals(new int[] { -1, -1, 1, -1 }, matrix.toArray());
+	}
+
+	private void assertMatchesSingleSource(List<Town> sources, List<Town> targets) {
+		DistanceMatrix matrix = DistanceMatrix.compute(graph.snapshot(), sources, targets, 2);
+		assertEquals(sources.size(), matrix.getRowCount());
+		assertEquals(targets.size(), matrix.getColumnCount());
+		for (int i = 0; i < sources.size(); i++) {
+			int[] expected = graph.distances(sources.get(i), targets);
+			for (int j = 0; j < expected.length; j++) {
+				assertEquals(expected[j], matrix.get(i, j));
+			}
+		}
+	}
+}
\ No newline at end of file
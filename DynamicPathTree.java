@@ -0,0 +1,363 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A shortest-path tree from one town that is kept correct as the graph is edited, in the style of
+ * Ramalingam and Reps: each edit repairs only the towns whose distance it can change, instead of
+ * rerunning the search.
+ * <ul>
+ * <li>A new road can only shorten paths. If it improves a town at one end, a Dijkstra search is
+ * started from that town and stops where it no longer improves anything.</li>
+ * <li>A removed road only matters if it was a tree road. The towns below it in the tree lose their
+ * distances; each is given the best distance offered by an unaffected neighbour, and a Dijkstra
+ * search from those labels settles the rest.</li>
+ * </ul>
+ * Labels are int arrays indexed by the graph's {@link TownRegistry} ids, which stay fixed while a
+ * town is in the graph, so neither building nor repairing a tree needs a compiled graph; the
+ * searches walk the live int-keyed adjacency of the {@link Graph}, which must tell the tree of
+ * every edit after it is applied. As in {@link DijkstraSearch}, a path whose length does not fit
+ * below {@link DijkstraSearch#UNREACHABLE} counts as no path.
+ * <p>
+ * {@link #freeze()} hands the arrays out as a {@link ShortestPathTree} without copying them; the
+ * next repair that changes a label copies them first, so a frozen tree keeps describing the graph
+ * as it was.
+ *
+ * @author Hussain Mohammad
+ */
+final class DynamicPathTree {
+
+    private final Graph graph;
+    private final int source;
+    private int[] dist;
+    private int[] pred;
+    private Road[] via;
+    private int reached;
+    private IndexedMinHeap heap;
+    private int[] affected = new int[16];
+    private boolean shared;
+    private ShortestPathTree frozen;
+    private int repaired;
+
+    /**
+     * Builds the tree with a full search of the live graph.
+     *
+     * @param graph  the live graph
+     * @param source the registry id of the root town
+     */
+    DynamicPathTree(Graph graph, int source) {
+        this.graph = graph;
+        this.source = source;
+        int n = Math.max(graph.registry().capacity(), source + 1);
+        dist = new int[n];
+        pred = new int[n];
+        via = new Road[n];
+        Arrays.fill(dist, DijkstraSearch.UNREACHABLE);
+        Arrays.fill(pred, -1);
+        dist[source] = 0;
+        reached = 1;
+        heap().insertOrDecrease(source, 0);
+        repaired = settle();
+    }
+
+    /**
+     * @return the root of the tree
+     */
+    Town source() {
+        return graph.registry().town(source);
+    }
+
+    /**
+     * @param town a town
+     * @return the distance from the source, or -1 if the town is unreachable or unknown
+     */
+    int distance(Town town) {
+        int d = distance(graph.registry().idOf(town));
+        return d == DijkstraSearch.UNREACHABLE ? -1 : d;
+    }
+
+    /**
+     * @param town the destination town
+     * @return the tree path from the source to the town
+     */
+    PathResult pathTo(Town town) {
+        TownRegistry registry = graph.registry();
+        int node = registry.idOf(town);
+        if (distance(node) == DijkstraSearch.UNREACHABLE) return PathResult.notFound(reached);
+        int hops = 0;
+        for (int v = node; pred[v] >= 0; v = pred[v]) hops++;
+        Town[] pathTowns = new Town[hops + 1];
+        Road[] pathRoads = new Road[hops];
+        int v = node;
+        for (int i = hops; i > 0; i--) {
+            pathTowns[i] = registry.town(v);
+            pathRoads[i - 1] = via[v];
+            v = pred[v];
+        }
+        pathTowns[0] = registry.town(v);
+        return new PathResult(pathTowns, pathRoads, dist[node], reached);
+    }
+
+    /**
+     * Gets the tree as an immutable {@link ShortestPathTree}. The copy shares this tree's arrays
+     * and is reused until a repair changes a label.
+     *
+     * @return the tree as a {@link ShortestPathTree}
+     */
+    ShortestPathTree freeze() {
+        if (frozen == null) {
+            shared = true;
+            frozen = new ShortestPathTree(new Frozen(graph.registry(), via), source, dist, pred, null, reached);
+        }
+        return frozen;
+    }
+
+    /**
+     * @return the number of towns relabelled by the last repair
+     */
+    int repaired() {
+        return repaired;
+    }
+
+    /**
+     * Repairs the tree after a road became the one routing sees between two towns.
+     *
+     * @param town  the registry id of one end of the road
+     * @param other the registry id of the other end
+     * @param road  the new road, already in the graph
+     */
+    void roadAdded(int town, int other, Road road) {
+        repaired = 0;
+        improve(town, other, road);
+        improve(other, town, road);
+    }
+
+    /**
+     * Repairs the tree after the road routing saw between two towns was removed.
+     *
+     * @param town  the registry id of one end of the road
+     * @param other the registry id of the other end
+     */
+    void roadRemoved(int town, int other) {
+        repaired = 0;
+        int root = predecessor(other) == town ? other : predecessor(town) == other ? town : -1;
+        if (root < 0) return;
+        affected[0] = root;
+        rebuild(collectSubtree(1));
+    }
+
+    /**
+     * Repairs the tree after a town other than the source was removed.
+     *
+     * @param town       the registry id of the removed town, no longer in the graph
+     * @param neighbours the town's former neighbours and the roads that joined them
+     */
+    void townRemoved(int town, NeighbourTable neighbours) {
+        repaired = 0;
+        if (distance(town) == DijkstraSearch.UNREACHABLE) return;
+        writable();
+        clear(town);
+        int count = 0;
+        for (int slot = 0; slot < neighbours.capacity(); slot++) {
+            if (neighbours.road(slot) == null || predecessor(neighbours.town(slot)) != town) continue;
+            if (count == affected.length) affected = Arrays.copyOf(affected, count * 2);
+            affected[count++] = neighbours.town(slot);
+        }
+        rebuild(collectSubtree(count));
+    }
+
+    /**
+     * Offers a town a path through a neighbour over the given road and, if that is shorter,
+     * spreads the improvement outward.
+     */
+    private void improve(int from, int to, Road road) {
+        int d = distance(from);
+        if (d == DijkstraSearch.UNREACHABLE) return;
+        long candidate = (long) d + road.getDistance();
+        if (candidate >= distance(to)) return;
+        writable();
+        label(to, (int) candidate, from, road);
+        repaired += settle();
+    }
+
+    /**
+     * Extends the roots in {@code affected[0..count)} with every town below them in the tree, in
+     * breadth-first order. A neighbour is a child exactly when the town is its predecessor.
+     *
+     * @return the number of affected towns
+     */
+    private int collectSubtree(int count) {
+        for (int i = 0; i < count; i++) {
+            int town = affected[i];
+            NeighbourTable neighbours = graph.neighbours(town);
+            for (int slot = 0; slot < neighbours.capacity(); slot++) {
+                if (neighbours.road(slot) == null) continue;
+                int child = neighbours.town(slot);
+                if (predecessor(child) != town) continue;
+                if (count == affected.length) affected = Arrays.copyOf(affected, count * 2);
+                affected[count++] = child;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Relabels the towns in {@code affected[0..count)}, which lost their tree path. Every other
+     * distance is still exact, because removing roads never shortens a path, so each affected town
+     * starts from its best unaffected neighbour and the search can only lower affected labels.
+     */
+    private void rebuild(int count) {
+        writable();
+        for (int i = 0; i < count; i++) clear(affected[i]);
+        for (int i = 0; i < count; i++) {
+            int town = affected[i];
+            long best = DijkstraSearch.UNREACHABLE;
+            int bestFrom = -1;
+            Road bestRoad = null;
+            NeighbourTable neighbours = graph.neighbours(town);
+            for (int slot = 0; slot < neighbours.capacity(); slot++) {
+                Road road = neighbours.road(slot);
+                if (road == null) continue;
+                int d = distance(neighbours.town(slot));
+                if (d != DijkstraSearch.UNREACHABLE && (long) d + road.getDistance() < best) {
+                    best = (long) d + road.getDistance();
+                    bestFrom = neighbours.town(slot);
+                    bestRoad = road;
+                }
+            }
+            if (bestRoad != null) label(town, (int) best, bestFrom, bestRoad);
+        }
+        settle();
+        repaired = count;
+    }
+
+    /**
+     * Runs Dijkstra from the queued towns over the live adjacency.
+     *
+     * @return the number of towns settled
+     */
+    private int settle() {
+        IndexedMinHeap heap = heap();
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            int town = heap.poll();
+            settled++;
+            int d = dist[town];
+            NeighbourTable neighbours = graph.neighbours(town);
+            for (int slot = 0; slot < neighbours.capacity(); slot++) {
+                Road road = neighbours.road(slot);
+                if (road == null) continue;
+                int next = neighbours.town(slot);
+                long candidate = (long) d + road.getDistance();
+                if (candidate < dist[next]) label(next, (int) candidate, town, road);
+            }
+        }
+        return settled;
+    }
+
+    private void label(int town, int distance, int from, Road road) {
+        if (dist[town] == DijkstraSearch.UNREACHABLE) reached++;
+        dist[town] = distance;
+        pred[town] = from;
+        via[town] = road;
+        heap().insertOrDecrease(town, distance);
+    }
+
+    private void clear(int town) {
+        if (dist[town] != DijkstraSearch.UNREACHABLE) reached--;
+        dist[town] = DijkstraSearch.UNREACHABLE;
+        pred[town] = -1;
+        via[town] = null;
+    }
+
+    private int distance(int town) {
+        return town >= 0 && town < dist.length ? dist[town] : DijkstraSearch.UNREACHABLE;
+    }
+
+    private int predecessor(int town) {
+        return town < pred.length ? pred[town] : -1;
+    }
+
+    /**
+     * Makes the label arrays safe to write: copies them if a frozen tree shares them, and grows
+     * them to cover every id the registry has handed out.
+     */
+    private void writable() {
+        int capacity = graph.registry().capacity();
+        if (!shared && capacity <= dist.length) return;
+        int n = capacity <= dist.length ? dist.length : Math.max(capacity, dist.length * 2);
+        int old = dist.length;
+        dist = Arrays.copyOf(dist, n);
+        pred = Arrays.copyOf(pred, n);
+        via = Arrays.copyOf(via, n);
+        Arrays.fill(dist, old, n, DijkstraSearch.UNREACHABLE);
+        Arrays.fill(pred, old, n, -1);
+        if (n > old) heap = null;
+        shared = false;
+        frozen = null;
+    }
+
+    private IndexedMinHeap heap() {
+        if (heap == null) heap = new IndexedMinHeap(dist.length);
+        return heap;
+    }
+
+    /**
+     * The towns and tree roads as they were when a tree was frozen. Towns are looked up through
+     * the live registry while it has removed nothing since, which leaves every id as it was, and
+     * through a table built on first need after that. Like the {@link Graph} itself, a frozen tree
+     * should be read on the thread that edits the graph.
+     */
+    private static final class Frozen extends TownIndex {
+        private final TownRegistry registry;
+        private final long removals;
+        private final Town[] towns;
+        private final Road[] via;
+        private Map<Town, Integer> ids;
+
+        Frozen(TownRegistry registry, Road[] via) {
+            this.registry = registry;
+            this.removals = registry.removals();
+            this.towns = registry.towns();
+            this.via = via;
+        }
+
+        @Override
+        int idOf(Town town) {
+            if (town == null) return -1;
+            if (registry.removals() == removals) {
+                int id = registry.idOf(town);
+                return id >= 0 && id < via.length && id < towns.length && towns[id] != null ? id : -1;
+            }
+            if (ids == null) {
+                ids = new HashMap<>();
+                for (int id = 0; id < Math.min(towns.length, via.length); id++) {
+                    if (towns[id] != null) ids.put(towns[id], id);
+                }
+            }
+            Integer id = ids.get(town);
+            return id != null ? id : -1;
+        }
+
+        @Override
+        Town town(int id) {
+            return towns[id];
+        }
+
+        @Override
+        PathResult path(int node, int distance, int[] pred, int[] predSlot, int settled) {
+            int hops = 0;
+            for (int v = node; pred[v] >= 0; v = pred[v]) hops++;
+            Town[] pathTowns = new Town[hops + 1];
+            Road[] pathRoads = new Road[hops];
+            int v = node;
+            for (int i = hops; i > 0; i--) {
+                pathTowns[i] = towns[v];
+                pathRoads[i - 1] = via[v];
+                v = pred[v];
+            }
+            pathTowns[0] = towns[v];
+            return new PathResult(pathTowns, pathRoads, distance, settled);
+        }
+    }
+}
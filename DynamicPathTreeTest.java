@@ -0,0 +1,97 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that cached shortest-path trees are repaired, rather than rebuilt, after edits.
+ * 
+ * @author Hussain Mohammad
+ */
+public class DynamicPathTreeTest {
+	private Graph graph;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[6];
+		for (int i = 0; i < 6; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[0], town[1], 4, "Road_1");
+		graph.addEdge(town[0], town[2], 1, "Road_2");
+		graph.addEdge(town[2], town[1], 2, "Road_3");
+		graph.addEdge(town[1], town[3], 5, "Road_4");
+		graph.addEdge(town[3], town[4], 3, "Road_5");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+	}
+
+	@Test
+	public void testRoadAdded() {
+		DynamicPathTree tree = graph.dynamicTree(town[0]);
+		graph.addEdge(town[4], town[5], 1, "Road_6");
+		assertEquals(1, tree.repaired());
+		graph.addEdge(town[2], town[3], 3, "Road_7");
+		assertEquals(3, tree.repaired());
+		graph.addEdge(town[1], town[4], 20, "Road_8");
+		assertEquals(0, tree.repaired());
+		assertArrayEquals(new int[] { 0, 3, 1, 4, 7, 8 }, graph.distances(town[0], Arrays.asList(town)));
+		assertSame(tree, graph.dynamicTree(town[0]));
+	}
+
+	@Test
+	public void testRoadRemoved() {
+		DynamicPathTree tree = graph.dynamicTree(town[0]);
+		graph.removeEdge(town[0], town[1], 4, "Road_1");
+		assertEquals(0, tree.repaired());
+		graph.removeEdge(town[2], town[1], 2, "Road_3");
+		assertEquals(3, tree.repaired());
+		assertArrayEquals(new int[] { 0, -1, 1, -1, -1, -1 }, graph.distances(town[0], Arrays.asList(town)));
+		assertFalse(graph.findPath(town[0], town[4]).isFound());
+	}
+
+	@Test
+	public void testTownRemoved() {
+		graph.dynamicTree(town[0]);
+		graph.removeVertex(town[2]);
+		assertArrayEquals(new int[] { 0, 4, -1, 9, 12, -1 }, graph.distances(town[0], Arrays.asList(town)));
+		assertEquals(Arrays.asList(town[0], town[1], town[3]), graph.findPath(town[0], town[3]).getTowns());
+		assertEquals(12, graph.shortestPathTree(town[0]).getDistance(town[4]));
+	}
+
+	@Test
+	public void testLongPathsAreUnreachable() {
+		DynamicPathTree tree = graph.dynamicTree(town[0]);
+		graph.addEdge(town[4], town[5], Integer.MAX_VALUE, "Road_6");
+		assertEquals(0, tree.repaired());
+		assertEquals(-1, tree.distance(town[5]));
+		graph.addEdge(town[0], town[5], Integer.MAX_VALUE - 1, "Road_7");
+		assertEquals(Integer.MAX_VALUE - 1, tree.distance(town[5]));
+		graph.removeEdge(town[0], town[5], -1, "Road_7");
+		assertEquals(-1, tree.distance(town[5]));
+		assertFalse(graph.findPath(town[0], town[5]).isFound());
+	}
+
+	@Test
+	public void testBulkAddKeepsTreesUnlessARoadIsAdded() {
+		DynamicPathTree tree = graph.dynamicTree(town[0]);
+		long version = graph.getVersion();
+		Town[] sources = { town[0] };
+		Town[] destinations = { town[1] };
+		assertEquals(0, graph.addRoads(sources, destinations, new int[] { 4 }, new String[] { "Road_1" }, 1));
+		assertSame(tree, graph.dynamicTree(town[0]));
+		assertEquals(version, graph.getVersion());
+		assertEquals(1, graph.addRoads(sources, destinations, new int[] { 1 }, new String[] { "Road_6" }, 1));
+		assertNotSame(tree, graph.dynamicTree(town[0]));
+		assertEquals(1, graph.distances(town[0], Arrays.asList(town[1]))[0]);
+	}
+}
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
 
 import javafx.application.Platform;
@@ -328,19 +329,11 @@ public class FXMainPane extends VBox {
 	}
 	//update the ComboBoxes that contain the town names
 	public void updateComboBoxes() {
-		ArrayList<String> townList = graph.allTowns();
-		for (String town : townList){
-			addDestTownComboBox.getItems().clear();
-			sourceConnectionComboBox.getItems().clear();
-			destConnectionComboBox.getItems().clear();
-			addSourceTownComboBox.getItems().clear();
-		}
-		for (String town : townList){
-			addDestTownComboBox.getItems().addAll(town);
-			sourceConnectionComboBox.getItems().addAll(town);
-			destConnectionComboBox.getItems().addAll(town);
-			addSourceTownComboBox.getItems().addAll(town); 
-		}	
+		List<String> townList = graph.townNames();
+		addDestTownComboBox.getItems().setAll(townList);
+		sourceConnectionComboBox.getItems().setAll(townList);
+		destConnectionComboBox.getItems().setAll(townList);
+		addSourceTownComboBox.getItems().setAll(townList);
 	}
 	
 	//Select the file to read the Towns and Roads from
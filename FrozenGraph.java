@@ -0,0 +1,392 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A frozen, read-optimized copy of a {@link Graph} held entirely in primitive arrays. Towns are
+ * numbered {@code 0..n-1} in name order and the roads of town {@code u} occupy slots
+ * {@code offsets[u]..offsets[u+1]-1} of {@code targets}, {@code weights} and
+ * {@code roadNameIds}, which index a table of distinct road names. Each road appears once from
+ * each end, so a road costs 24 bytes rather than a {@link Road} object and two hash entries.
+ * <p>
+ * Searches run on the arrays alone, with the same {@link DijkstraSearch} as {@link Graph}.
+ * {@link Town} and {@link Road} objects are only created when a result hands them back, and each
+ * is kept once made; they are published through atomic arrays, so a thread never sees one half
+ * built. A road read from town {@code u} has {@code u} as its source. The graph cannot be edited:
+ * every mutator throws {@link UnsupportedOperationException}. Any number of threads may query it
+ * at once; each searches with its own arrays.
+ *
+ * @author Hussain Mohammad
+ */
+public final class FrozenGraph extends CsrGraph implements GraphInterface<Town, Road> {
+
+    private final String[] townNames;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] roadNameIds;
+    private final String[] roadNames;
+    private final AtomicReferenceArray<Town> towns;
+    private final AtomicReferenceArray<Road> roads;
+    private volatile Set<Town> vertexView;
+    private volatile Set<Road> edgeView;
+
+    private FrozenGraph(String[] townNames, int[] offsets, int[] targets, int[] weights, int[] roadNameIds,
+            String[] roadNames) {
+        this.townNames = townNames;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.roadNameIds = roadNameIds;
+        this.roadNames = roadNames;
+        this.towns = new AtomicReferenceArray<>(townNames.length);
+        this.roads = new AtomicReferenceArray<>(targets.length);
+    }
+
+    /**
+     * Compiles the current state of a graph. Later edits to the graph are not seen.
+     *
+     * @param graph the graph to compile
+     * @return the frozen graph
+     * @throws NullPointerException if the graph is null
+     */
+    public static FrozenGraph of(Graph graph) {
+        Objects.requireNonNull(graph, "Graph cannot be null");
+        int n = graph.vertexSet().size();
+        String[] townNames = new String[n];
+        int next = 0;
+        for (Town town : graph.vertexSet()) townNames[next++] = town.getName();
+        Arrays.sort(townNames);
+        int[] offsets = new int[n + 1];
+        Road[][] incident = new Road[n][];
+        for (int u = 0; u < n; u++) {
+            incident[u] = graph.edgesOf(graph.getTown(townNames[u])).toArray(new Road[0]);
+            offsets[u + 1] = offsets[u] + incident[u].length;
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        int[] roadNameIds = new int[offsets[n]];
+        Map<String, Integer> nameIds = new HashMap<>();
+        for (int u = 0; u < n; u++) {
+            int slot = offsets[u];
+            for (Road road : incident[u]) {
+                boolean forward = road.getSource().getName().equals(townNames[u]);
+                targets[slot] = Arrays.binarySearch(townNames, (forward ? road.getDestination() : road.getSource()).getName());
+                weights[slot] = road.getDistance();
+                Integer nameId = nameIds.putIfAbsent(road.getName(), nameIds.size());
+                roadNameIds[slot] = nameId != null ? nameId : nameIds.size() - 1;
+                slot++;
+            }
+        }
+        String[] roadNames = new String[nameIds.size()];
+        for (Map.Entry<String, Integer> entry : nameIds.entrySet()) roadNames[entry.getValue()] = entry.getKey();
+        return new FrozenGraph(townNames, offsets, targets, weights, roadNameIds, roadNames);
+    }
+
+    /**
+     * @return the number of towns
+     */
+    public int getTownCount() {
+        return townNames.length;
+    }
+
+    /**
+     * @return the number of roads
+     */
+    public int getRoadCount() {
+        int count = 0;
+        for (int u = 0; u < townNames.length; u++) {
+            for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                if (targets[slot] >= u) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the town with the given name.
+     *
+     * @param name the town name
+     * @return the town, or null if there is none
+     */
+    public Town getTown(String name) {
+        int id = idOf(name);
+        return id < 0 ? null : town(id);
+    }
+
+    /**
+     * Retrieves the road connecting two towns, if it exists. If several roads join them, the
+     * shortest is returned.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return the connecting road, or null if none exists
+     */
+    @Override
+    public Road getEdge(Town sourceVertex, Town destinationVertex) {
+        int source = idOf(sourceVertex);
+        int slot = slotOf(source, idOf(destinationVertex));
+        return slot < 0 ? null : road(source, slot);
+    }
+
+    /**
+     * Always fails; a frozen graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Road addEdge(Town sourceVertex, Town destinationVertex, int weight, String description) {
+        throw frozen();
+    }
+
+    /**
+     * Always fails; a frozen graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addVertex(Town town) {
+        throw frozen();
+    }
+
+    /**
+     * Checks if a road exists between two towns.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return true if the road exists, false otherwise
+     */
+    @Override
+    public boolean containsEdge(Town sourceVertex, Town destinationVertex) {
+        return slotOf(idOf(sourceVertex), idOf(destinationVertex)) >= 0;
+    }
+
+    /**
+     * Checks if a town exists in the graph.
+     *
+     * @param town the town to check
+     * @return true if the town exists, false otherwise
+     */
+    @Override
+    public boolean containsVertex(Town town) {
+        return idOf(town) >= 0;
+    }
+
+    /**
+     * Retrieves all roads in the graph. The set is built on first use.
+     *
+     * @return an unmodifiable set of roads
+     */
+    @Override
+    public Set<Road> edgeSet() {
+        Set<Road> view = edgeView;
+        if (view == null) {
+            Set<Road> all = new HashSet<>();
+            for (int u = 0; u < townNames.length; u++) {
+                for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                    if (targets[slot] >= u) all.add(road(u, slot));
+                }
+            }
+            view = Collections.unmodifiableSet(all);
+            edgeView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Retrieves all roads connected to a specific town.
+     *
+     * @param town the town whose roads are to be retrieved
+     * @return a set of connected roads, empty if the town has none
+     * @throws IllegalArgumentException if the town is not in the graph
+     * @throws NullPointerException     if the town is null
+     */
+    @Override
+    public Set<Road> edgesOf(Town town) {
+        Objects.requireNonNull(town, "Town cannot be null");
+        int id = idOf(town);
+        if (id < 0) throw new IllegalArgumentException("Town is not in the graph");
+        Set<Road> result = new HashSet<>();
+        for (int slot = offsets[id]; slot < offsets[id + 1]; slot++) result.add(road(id, slot));
+        return result;
+    }
+
+    /**
+     * Always fails; a frozen graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Road removeEdge(Town sourceVertex, Town destinationVertex, int weight, String description) {
+        throw frozen();
+    }
+
+    /**
+     * Always fails; a frozen graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeVertex(Town town) {
+        throw frozen();
+    }
+
+    /**
+     * Retrieves all towns in the graph. The set is built on first use.
+     *
+     * @return an unmodifiable set of towns
+     */
+    @Override
+    public Set<Town> vertexSet() {
+        Set<Town> view = vertexView;
+        if (view == null) {
+            Set<Town> all = new HashSet<>();
+            for (int id = 0; id < townNames.length; id++) all.add(town(id));
+            view = Collections.unmodifiableSet(all);
+            vertexView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Finds the shortest path from one town to another.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return an ArrayList of Strings describing the path, empty if there is none
+     */
+    @Override
+    public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex) {
+        return new ArrayList<>(findPath(sourceVertex, destinationVertex).getSteps());
+    }
+
+    /**
+     * Finds the shortest path from one town to another with Dijkstra's algorithm. The search
+     * stops as soon as the destination is settled.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the path, which is not found if either town is missing or they are disconnected
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex) {
+        int source = idOf(sourceVertex);
+        int target = idOf(destinationVertex);
+        if (source < 0 || target < 0) return PathResult.notFound(0);
+        DijkstraSearch search = DijkstraSearch.forThread(this);
+        search.run(source, target);
+        return search.pathTo(target);
+    }
+
+    /**
+     * Finds the shortest distance between two towns without building the path.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the distance, or -1 if either town is missing or they are disconnected
+     */
+    public int getDistance(Town sourceVertex, Town destinationVertex) {
+        int source = idOf(sourceVertex);
+        int target = idOf(destinationVertex);
+        if (source < 0 || target < 0) return -1;
+        DijkstraSearch search = DijkstraSearch.forThread(this);
+        search.run(source, target);
+        int d = search.distance(target);
+        return d == DijkstraSearch.UNREACHABLE ? -1 : d;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a town over the whole graph. The distances are kept in the
+     * calling thread's search state, where the next query from the same thread replaces them.
+     *
+     * @param sourceVertex starting town
+     * @throws IllegalArgumentException if the town is not in the graph
+     */
+    @Override
+    public void dijkstraShortestPath(Town sourceVertex) {
+        int source = idOf(sourceVertex);
+        if (source < 0) throw new IllegalArgumentException("Town is not in the graph");
+        DijkstraSearch.forThread(this).run(source, -1);
+    }
+
+    @Override
+    int size() {
+        return townNames.length;
+    }
+
+    @Override
+    int firstSlot(int town) {
+        return offsets[town];
+    }
+
+    @Override
+    int target(int slot) {
+        return targets[slot];
+    }
+
+    @Override
+    int weight(int slot) {
+        return weights[slot];
+    }
+
+    @Override
+    int idOf(Town town) {
+        return town == null ? -1 : idOf(town.getName());
+    }
+
+    private int idOf(String name) {
+        if (name == null) return -1;
+        int id = Arrays.binarySearch(townNames, name);
+        return id < 0 ? -1 : id;
+    }
+
+    /**
+     * Finds the slot of the shortest road between two towns.
+     */
+    private int slotOf(int source, int destination) {
+        if (source < 0 || destination < 0) return -1;
+        int best = -1;
+        for (int slot = offsets[source]; slot < offsets[source + 1]; slot++) {
+            if (targets[slot] == destination && (best < 0 || weights[slot] < weights[best])) best = slot;
+        }
+        return best;
+    }
+
+    /**
+     * Gets the town with an id, creating it on first use. If two threads race, both get the
+     * instance that was stored first.
+     */
+    @Override
+    Town town(int id) {
+        Town town = towns.get(id);
+        if (town == null) {
+            towns.compareAndSet(id, null, new Town(townNames[id]));
+            town = towns.get(id);
+        }
+        return town;
+    }
+
+    /**
+     * Gets the road in a slot of town {@code owner}, creating it on first use, seen from the
+     * owner.
+     */
+    @Override
+    Road road(int owner, int slot) {
+        Road road = roads.get(slot);
+        if (road == null) {
+            roads.compareAndSet(slot, null, new Road(town(owner), town(targets[slot]), weights[slot],
+                    roadNames[roadNameIds[slot]]));
+            road = roads.get(slot);
+        }
+        return road;
+    }
+
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("A frozen graph cannot be edited");
+    }
+}
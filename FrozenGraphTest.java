@@ -0,0 +1,84 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the frozen, array-backed graph.
+ * 
+ * @author Hussain Mohammad
+ */
+public class FrozenGraphTest {
+	private Graph graph;
+	private FrozenGraph frozen;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[6];
+		for (int i = 0; i < 6; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[0], town[1], 4, "Road_1");
+		graph.addEdge(town[0], town[2], 1, "Road_2");
+		graph.addEdge(town[2], town[1], 2, "Road_2");
+		graph.addEdge(town[1], town[3], 5, "Road_3");
+		graph.addEdge(town[3], town[4], 3, "Road_4");
+		frozen = FrozenGraph.of(graph);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+		frozen = null;
+	}
+
+	@Test
+	public void testLookups() {
+		assertEquals(6, frozen.getTownCount());
+		assertEquals(5, frozen.getRoadCount());
+		assertEquals(graph.vertexSet(), frozen.vertexSet());
+		assertEquals(graph.edgeSet(), frozen.edgeSet());
+		assertEquals(graph.edgesOf(town[1]), frozen.edgesOf(town[1]));
+		assertTrue(frozen.containsEdge(town[1], town[2]));
+		assertFalse(frozen.containsEdge(town[0], town[3]));
+		assertEquals("Road_2", frozen.getEdge(town[1], town[2]).getName());
+		assertEquals(town[4], frozen.getTown("Town_4"));
+		assertNull(frozen.getTown("Town_9"));
+		assertTrue(frozen.edgesOf(town[5]).isEmpty());
+	}
+
+	@Test
+	public void testRouting() {
+		PathResult path = frozen.findPath(town[0], town[4]);
+		assertEquals(11, path.getDistance());
+		assertEquals(Arrays.asList(town[0], town[2], town[1], town[3], town[4]), path.getTowns());
+		assertEquals(graph.shortestPath(town[0], town[4]), frozen.shortestPath(town[0], town[4]));
+		assertEquals(3, frozen.getDistance(town[1], town[0]));
+		assertEquals(-1, frozen.getDistance(town[0], town[5]));
+		assertFalse(frozen.findPath(town[0], new Town("Town_9")).isFound());
+	}
+
+	@Test
+	public void testFrozen() {
+		graph.addEdge(town[4], town[5], 1, "Road_5");
+		assertFalse(frozen.containsEdge(town[4], town[5]));
+		try {
+			frozen.addEdge(town[4], town[5], 1, "Road_5");
+			fail("Frozen graphs cannot be edited");
+		} catch (UnsupportedOperationException e) {
+			assertTrue(frozen.edgeSet().size() == 5);
+		}
+		try {
+			frozen.removeVertex(town[0]);
+			fail("Frozen graphs cannot be edited");
+		} catch (UnsupportedOperationException e) {
+			assertTrue(frozen.containsVertex(town[0]));
+		}
+	}
+}
@@ -1,9 +1,18 @@
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A Graph implementation for towns and roads. The graph is represented using adjacency lists.
  * Vertices are Town objects, and edges are Road objects.
+ * <p>
+ * Each town has a dense id from the graph's {@link TownRegistry}, and the adjacency is an array
+ * indexed by that id of {@link NeighbourTable}s keyed by the neighbour's id. A town-pair lookup
+ * hashes each name once to find the ids and then probes one int-keyed table, and per-town queries
+ * only touch that town's roads.
+ * <p>
+ * Several roads may join the same two towns as long as their names differ. The adjacency holds
+ * only the shortest road of each pair, and is all that routing reads, so parallel roads never
+ * slow a search down; the full list of a pair's roads is kept in a side table keyed by the pair's
+ * ids, and only for pairs that have more than one.
  * 
  * @author Hussain Mohammad
  */
@@ -11,10 +20,33 @@ public class Graph implements GraphInterface<Town, Road> {
 
     private final Set<Town> towns = new HashSet<>();
     private final Set<Road> roads = new HashSet<>();
-    @SuppressWarnings("FieldMayBeFinal")
+    private NeighbourTable[] adjacency = new NeighbourTable[16];
+    private final Map<Long, List<Road>> parallelRoads = new HashMap<>();
+    private final TownRegistry registry = new TownRegistry();
+    private final NavigableSet<String> townNames = new TreeSet<>();
+    private final NavigableMap<String, Integer> roadNames = new TreeMap<>();
+    private List<String> townNameView;
+    private List<String> roadNameView;
     private List<String> shortestPath = new ArrayList<>();
+    private RoutingGraph routing;
+    private DijkstraSearch search;
+    private BidirectionalSearch bidirectional;
+    private LandmarkIndex landmarks;
+    private AStarSearch astar;
+    private ContractionHierarchy hierarchy;
+    private AllPairsTable allPairs;
+    private GraphVersion snapshot;
+    private long version;
+    private int batchDepth;
+    private boolean batchChanged;
+    private RoutingMode routingMode = RoutingMode.DIJKSTRA;
+    private int landmarkCount = 8;
+    private final LinkedHashMap<Town, DynamicPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+    private int treeCacheSize = 16;
+
     /**
-     * Retrieves the road connecting two towns, if it exists.
+     * Retrieves the road connecting two towns, if it exists. If several roads join them, the
+     * shortest is returned.
      *
      * @param sourceVertex      source town
      * @param destinationVertex destination town
@@ -22,10 +54,21 @@ public class Graph implements GraphInterface<Town, Road> {
      */
     @Override
     public Road getEdge(Town sourceVertex, Town destinationVertex) {
-        if (sourceVertex == null || destinationVertex == null) return null;
-        return roads.stream()
-                .filter(road -> road.contains(sourceVertex) && road.contains(destinationVertex))
-                .findFirst().orElse(null);
+        int source = registry.idOf(sourceVertex);
+        int destination = registry.idOf(destinationVertex);
+        return source >= 0 && destination >= 0 ? adjacency[source].get(destination) : null;
+    }
+
+    /**
+     * Retrieves every road connecting two towns.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return the connecting roads in the order they were added, empty if there are none
+     */
+    public List<Road> getEdges(Town sourceVertex, Town destinationVertex) {
+        if (getEdge(sourceVertex, destinationVertex) == null) return new ArrayList<>();
+        return new ArrayList<>(roadsBetween(registry.idOf(sourceVertex), registry.idOf(destinationVertex)));
     }
 
     /**
@@ -35,7 +78,7 @@ public class Graph implements GraphInterface<Town, Road> {
      * @param destinationVertex destination town
      * @param distance          distance of the road
      * @param description       road name
-     * @return the added road, or null if not added
+     * @return the added road, or null if a road of the same name already joins the towns
      * @throws IllegalArgumentException if either town is not in the graph
      * @throws NullPointerException     if any input is null
      */
@@ -43,14 +86,106 @@ public class Graph implements GraphInterface<Town, Road> {
     public Road addEdge(Town sourceVertex, Town destinationVertex, int distance, String description) {
         Objects.requireNonNull(sourceVertex, "Source town cannot be null");
         Objects.requireNonNull(destinationVertex, "Destination town cannot be null");
-        if (!containsVertex(sourceVertex) || !containsVertex(destinationVertex)) {
+        int source = registry.idOf(sourceVertex);
+        int destination = registry.idOf(destinationVertex);
+        if (source < 0 || destination < 0) {
             throw new IllegalArgumentException("Both towns must be in the graph");
         }
-        Road road = new Road(sourceVertex, destinationVertex, distance, description);
+        Road road = connect(source, destination, distance, description);
+        if (road != null) invalidateRouting();
+        return road;
+    }
+
+    /**
+     * Adds a road unless the towns are already joined by a road of the same name, keeping the
+     * shortest road of the pair in the adjacency. Both ids must be in use. The caller invalidates
+     * routing.
+     */
+    private Road connect(int source, int destination, int distance, String name) {
+        Road best = adjacency[source].get(destination);
+        if (best != null) {
+            for (Road existing : roadsBetween(source, destination)) {
+                if (existing.getName().equals(name)) return null;
+            }
+        }
+        Road road = new Road(registry.town(source), registry.town(destination), distance, name);
         roads.add(road);
+        roadNameAdded(name);
+        if (best != null) {
+            List<Road> pair = parallelRoads.get(pairKey(source, destination));
+            if (pair == null) {
+                pair = new ArrayList<>(2);
+                pair.add(best);
+                parallelRoads.put(pairKey(source, destination), pair);
+            }
+            pair.add(road);
+            if (distance >= best.getDistance()) return road;
+        }
+        setBest(source, destination, road);
         return road;
     }
 
+    /**
+     * Gets the roads joining two towns by id, both of which must be in use.
+     */
+    private List<Road> roadsBetween(int source, int destination) {
+        List<Road> pair = parallelRoads.isEmpty() ? null : parallelRoads.get(pairKey(source, destination));
+        if (pair != null) return pair;
+        Road road = adjacency[source].get(destination);
+        return road != null ? Collections.singletonList(road) : Collections.emptyList();
+    }
+
+    /**
+     * Gets the side-table key of a pair of town ids, the same in either order.
+     */
+    private static long pairKey(int town, int other) {
+        return town < other ? (long) town << 32 | other : (long) other << 32 | town;
+    }
+
+    /**
+     * Makes a road the one routing sees between two towns, or disconnects them for routing if it
+     * is null. Cached trees see the old road removed before the new one is added, so each repair
+     * starts from exact distances.
+     */
+    private void setBest(int source, int destination, Road best) {
+        Road old = adjacency[source].remove(destination);
+        if (old != null) {
+            adjacency[destination].remove(source);
+            for (DynamicPathTree tree : trees.values()) tree.roadRemoved(source, destination);
+        }
+        if (best != null) {
+            adjacency[source].put(destination, best);
+            adjacency[destination].put(source, best);
+            for (DynamicPathTree tree : trees.values()) tree.roadAdded(source, destination, best);
+        }
+    }
+
+    /**
+     * Adds many roads in one pass, adding their towns first if needed. Roads whose towns are
+     * already joined by a road of the same name are skipped, as in {@link #addEdge}. Derived
+     * routing data is invalidated once for the whole batch, and cached shortest-path trees are
+     * dropped as soon as the first road is added rather than repaired road by road. If no town or
+     * road is added, both are kept.
+     *
+     * @param sources      the source town of each road
+     * @param destinations the destination town of each road
+     * @param distances    the distance of each road
+     * @param names        the name of each road
+     * @param count        the number of roads to read from the arrays
+     * @return the number of roads added
+     */
+    int addRoads(Town[] sources, Town[] destinations, int[] distances, String[] names, int count) {
+        int added = 0;
+        int townCount = towns.size();
+        for (int i = 0; i < count; i++) {
+            int source = canonical(sources[i]), destination = canonical(destinations[i]);
+            if (connect(source, destination, distances[i], names[i]) == null) continue;
+            if (added++ == 0) trees.clear();
+        }
+        if (added > 0 || towns.size() != townCount) invalidateRouting();
+        return added;
+    }
+
     /**
      * Adds a town to the graph.
      *
@@ -61,7 +196,75 @@ public class Graph implements GraphInterface<Town, Road> {
     @Override
     public boolean addVertex(Town town) {
         Objects.requireNonNull(town, "Town cannot be null");
-        return towns.add(town);
+        if (towns.contains(town)) return false;
+        canonical(town);
+        invalidateRouting();
+        return true;
+    }
+
+    /**
+     * Retrieves the town with the given name.
+     *
+     * @param name the town's name
+     * @return the town instance held by the graph, or null if there is none
+     */
+    public Town getTown(String name) {
+        return registry.get(name);
+    }
+
+    /**
+     * Returns the id of a town, adding the town if it is not yet present.
+     */
+    private int canonical(Town town) {
+        int id = registry.idOf(town);
+        if (id >= 0) return id;
+        registry.intern(town);
+        id = registry.idOf(town);
+        if (id >= adjacency.length) adjacency = Arrays.copyOf(adjacency, Math.max(id + 1, adjacency.length * 2));
+        adjacency[id] = new NeighbourTable();
+        towns.add(town);
+        townNames.add(town.getName());
+        townNameView = null;
+        return id;
+    }
+
+    /**
+     * Gets the names of all towns in alphabetical order. The list is maintained incrementally
+     * and the same instance is returned until the towns change.
+     *
+     * @return a read-only sorted list of town names
+     */
+    public List<String> getSortedTownNames() {
+        if (townNameView == null) townNameView = Collections.unmodifiableList(new ArrayList<>(townNames));
+        return townNameView;
+    }
+
+    /**
+     * Gets the names of all roads in alphabetical order, with a name repeated once per road that
+     * carries it. The list is maintained incrementally and the same instance is returned until
+     * the roads change.
+     *
+     * @return a read-only sorted list of road names
+     */
+    public List<String> getSortedRoadNames() {
+        if (roadNameView == null) {
+            List<String> names = new ArrayList<>(roads.size());
+            for (Map.Entry<String, Integer> entry : roadNames.entrySet()) {
+                for (int i = 0; i < entry.getValue(); i++) names.add(entry.getKey());
+            }
+            roadNameView = Collections.unmodifiableList(names);
+        }
+        return roadNameView;
+    }
+
+    private void roadNameAdded(String name) {
+        roadNames.merge(name, 1, Integer::sum);
+        roadNameView = null;
+    }
+
+    private void roadNameRemoved(String name) {
+        roadNames.computeIfPresent(name, (key, count) -> count == 1 ? null : count - 1);
+        roadNameView = null;
     }
 
     /**
@@ -73,7 +276,7 @@ public class Graph implements GraphInterface<Town, Road> {
      */
     @Override
     public boolean containsEdge(Town sourceVertex, Town destinationVertex) {
-        return roads.stream().anyMatch(road -> road.contains(sourceVertex) && road.contains(destinationVertex));
+        return getEdge(sourceVertex, destinationVertex) != null;
     }
 
     /**
@@ -84,7 +287,7 @@ public class Graph implements GraphInterface<Town, Road> {
      */
     @Override
     public boolean containsVertex(Town town) {
-        return towns.contains(town);
+        return registry.idOf(town) >= 0;
     }
 
     /**
@@ -101,38 +304,100 @@ public class Graph implements GraphInterface<Town, Road> {
      * Retrieves all roads connected to a specific town.
      *
      * @param town the town whose roads are to be retrieved
-     * @return a set of connected roads
+     * @return a set of connected roads, empty if the town has none
      * @throws IllegalArgumentException if the town is not in the graph
      * @throws NullPointerException     if the town is null
      */
     @Override
     public Set<Road> edgesOf(Town town) {
         Objects.requireNonNull(town, "Town cannot be null");
-        Set<Road> connectedRoads = roads.stream()
-                .filter(road -> road.contains(town))
-                .collect(Collectors.toSet());
-        if (connectedRoads.isEmpty()) throw new IllegalArgumentException("Town is not in the graph");
-        return connectedRoads;
+        int id = registry.idOf(town);
+        if (id < 0) throw new IllegalArgumentException("Town is not in the graph");
+        NeighbourTable neighbours = adjacency[id];
+        Set<Road> result = new HashSet<>();
+        for (int slot = 0; slot < neighbours.capacity(); slot++) {
+            if (neighbours.road(slot) != null) result.addAll(roadsBetween(id, neighbours.town(slot)));
+        }
+        return result;
     }
 
     /**
-     * Removes a road from the graph.
+     * Removes a road from the graph. If several roads between the towns match, the shortest is
+     * removed.
      *
      * @param sourceVertex      source town
      * @param destinationVertex destination town
-     * @param distance          road distance
-     * @param description       road name
+     * @param distance          road distance, checked only if greater than -1
+     * @param description       road name, checked only if not null
      * @return the removed road, or null if no road was removed
      */
     @Override
     public Road removeEdge(Town sourceVertex, Town destinationVertex, int distance, String description) {
-        Road roadToRemove = getEdge(sourceVertex, destinationVertex);
-        if (roadToRemove != null && roadToRemove.getDistance() == distance
-                && roadToRemove.getName().equals(description)) {
-            roads.remove(roadToRemove);
-            return roadToRemove;
+        if (getEdge(sourceVertex, destinationVertex) == null) return null;
+        int source = registry.idOf(sourceVertex);
+        int destination = registry.idOf(destinationVertex);
+        Road roadToRemove = null;
+        for (Road road : roadsBetween(source, destination)) {
+            if ((distance > -1 && road.getDistance() != distance)
+                    || (description != null && !road.getName().equals(description))) {
+                continue;
+            }
+            if (roadToRemove == null || road.getDistance() < roadToRemove.getDistance()) roadToRemove = road;
+        }
+        if (roadToRemove == null) return null;
+        roads.remove(roadToRemove);
+        roadNameRemoved(roadToRemove.getName());
+        Road best = null;
+        List<Road> pair = parallelRoads.isEmpty() ? null : parallelRoads.get(pairKey(source, destination));
+        if (pair != null) {
+            pair.remove(roadToRemove);
+            for (Road road : pair) {
+                if (best == null || road.getDistance() < best.getDistance()) best = road;
+            }
+            if (pair.size() == 1) parallelRoads.remove(pairKey(source, destination));
         }
-        return null;
+        if (adjacency[source].get(destination) == roadToRemove) setBest(source, destination, best);
+        invalidateRouting();
+        return roadToRemove;
+    }
+
+    /**
+     * Removes the road with the given name between two towns. The pair is found with one probe of
+     * the adjacency map and only the roads joining it are compared, so the cost does not depend
+     * on the size of the graph.
+     *
+     * @param sourceVertex      one town on the road
+     * @param destinationVertex the other town on the road
+     * @param name              the road's name
+     * @return the removed road, or null if there is no such road
+     */
+    public Road removeRoad(Town sourceVertex, Town destinationVertex, String name) {
+        return name == null ? null : removeEdge(sourceVertex, destinationVertex, -1, name);
+    }
+
+    /**
+     * Removes many named roads in one pass, as by {@link #removeRoad}. Cached trees are repaired
+     * after each road, but the version goes up once and derived routing data is discarded once
+     * for the whole batch.
+     *
+     * @param sources      one town of each road
+     * @param destinations the other town of each road
+     * @param names        the name of each road
+     * @param count        the number of roads to read from the arrays
+     * @return the roads removed, in order
+     */
+    List<Road> removeRoads(Town[] sources, Town[] destinations, String[] names, int count) {
+        List<Road> removed = new ArrayList<>();
+        beginBatch();
+        try {
+            for (int i = 0; i < count; i++) {
+                Road road = removeRoad(sources[i], destinations[i], names[i]);
+                if (road != null) removed.add(road);
+            }
+        } finally {
+            endBatch();
+        }
+        return removed;
     }
 
     /**
@@ -143,8 +408,28 @@ public class Graph implements GraphInterface<Town, Road> {
      */
     @Override
     public boolean removeVertex(Town town) {
-        if (town == null) return false;
-        roads.removeIf(road -> road.contains(town));
+        int id = registry.idOf(town);
+        if (id < 0) return false;
+        NeighbourTable neighbours = adjacency[id];
+        adjacency[id] = null;
+        for (int slot = 0; slot < neighbours.capacity(); slot++) {
+            Road road = neighbours.road(slot);
+            if (road == null) continue;
+            int other = neighbours.town(slot);
+            if (other != id) adjacency[other].remove(id);
+            List<Road> pair = parallelRoads.isEmpty() ? null : parallelRoads.remove(pairKey(id, other));
+            if (pair == null) pair = Collections.singletonList(road);
+            for (Road removed : pair) {
+                roads.remove(removed);
+                roadNameRemoved(removed.getName());
+            }
+        }
+        trees.remove(town);
+        for (DynamicPathTree tree : trees.values()) tree.townRemoved(id, neighbours);
+        invalidateRouting();
+        registry.remove(town);
+        townNames.remove(town.getName());
+        townNameView = null;
         return towns.remove(town);
     }
 
@@ -159,34 +444,338 @@ public class Graph implements GraphInterface<Town, Road> {
     }
 
     /**
-     * Finds the shortest path from one town to another.
+     * Finds the shortest path from one town to another. The search stops as soon as the
+     * destination is settled.
      *
      * @param sourceVertex      starting town
      * @param destinationVertex ending town
-     * @return an ArrayList of Strings describing the path
+     * @return an ArrayList of Strings describing the path, empty if there is none
      */
     @Override
     public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex) {
-        dijkstraShortestPath(sourceVertex);
-        return shortestPath.stream().map(path -> {
-            Town source = new Town(path.split(" ")[0]);
-            Town destination = new Town(path.split(" ")[2]);
-            Road road = getEdge(source, destination);
-            return road.toString();
-        }).collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<String> path = new ArrayList<>(findPath(sourceVertex, destinationVertex).getSteps());
+        shortestPath = path;
+        return path;
     }
 
     /**
-     * Implements Dijkstra's algorithm to find shortest paths.
+     * Finds the shortest path from one town to another as a structured result, using the
+     * graph's configured routing mode.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the path, which is not found if either town is missing or they are disconnected
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex) {
+        return findPath(sourceVertex, destinationVertex, routingMode);
+    }
+
+    /**
+     * Finds the shortest path from one town to another with the given search strategy.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @param mode              the search strategy to use for this query
+     * @return the path, which is not found if either town is missing or they are disconnected
+     * @throws NullPointerException if the mode is null
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex, RoutingMode mode) {
+        Objects.requireNonNull(mode, "Routing mode cannot be null");
+        if (mode == RoutingMode.DIJKSTRA) {
+            DynamicPathTree tree = trees.get(sourceVertex);
+            if (tree != null) return tree.pathTo(destinationVertex);
+        }
+        RoutingGraph compiled = routingGraph();
+        int source = compiled.idOf(sourceVertex);
+        int destination = compiled.idOf(destinationVertex);
+        if (source < 0 || destination < 0) return PathResult.notFound(0);
+        switch (mode) {
+            case BIDIRECTIONAL:
+                if (bidirectional == null) bidirectional = new BidirectionalSearch(compiled);
+                return bidirectional.run(source, destination);
+            case ALT:
+                if (astar == null) astar = new AStarSearch(compiled, landmarkIndex());
+                return astar.run(source, destination);
+            case CONTRACTION_HIERARCHY:
+                return contractionHierarchy().run(source, destination);
+            case ALL_PAIRS:
+                return allPairsTable().run(source, destination);
+            default:
+                DijkstraSearch dijkstra = search();
+                dijkstra.run(source, destination);
+                return dijkstra.pathTo(destination);
+        }
+    }
+
+    /**
+     * Gets the search strategy used by {@link #shortestPath} and {@link #findPath(Town, Town)}.
+     *
+     * @return the configured routing mode
+     */
+    public RoutingMode getRoutingMode() {
+        return routingMode;
+    }
+
+    /**
+     * Sets the search strategy used by {@link #shortestPath} and {@link #findPath(Town, Town)}.
+     *
+     * @param routingMode the routing mode to use
+     * @throws NullPointerException if the mode is null
+     */
+    public void setRoutingMode(RoutingMode routingMode) {
+        this.routingMode = Objects.requireNonNull(routingMode, "Routing mode cannot be null");
+        snapshot = null;
+    }
+
+    /**
+     * Implements Dijkstra's algorithm to find shortest paths. The distances and predecessors of
+     * every reachable town are kept, and repaired as roads and towns are added and removed, so
+     * later {@link RoutingMode#DIJKSTRA} queries from the same town are answered from them.
      *
      * @param sourceVertex starting town
+     * @throws IllegalArgumentException if the town is not in the graph
      */
     @Override
     public void dijkstraShortestPath(Town sourceVertex) {
-        // Implement Dijkstra's logic here
+        shortestPathTree(sourceVertex);
+    }
+
+    /**
+     * Gets the shortest-path tree rooted at a town, running a full Dijkstra search unless the tree
+     * is already cached. The most recently used trees are kept, see
+     * {@link #setTreeCacheSize(int)}, and each edit repairs them in place rather than discarding
+     * them; only the towns whose distance the edit can change are searched again. Trees are built
+     * and repaired on the live adjacency, so none of this compiles the graph. The returned tree is
+     * an immutable copy that is reused until an edit changes it, and should be read on the thread
+     * that edits the graph; take a {@link #snapshot()} to route from other threads.
+     *
+     * @param sourceVertex the root town
+     * @return the distances and paths from the town to every other town
+     * @throws IllegalArgumentException if the town is not in the graph
+     */
+    public ShortestPathTree shortestPathTree(Town sourceVertex) {
+        return dynamicTree(sourceVertex).freeze();
+    }
+
+    /**
+     * Gets the shortest distances from one town to many with a single search.
+     *
+     * @param sourceVertex starting town
+     * @param destinations the destination towns
+     * @return the distance to each destination in the same order, -1 where it is unreachable
+     * @throws IllegalArgumentException if the starting town is not in the graph
+     */
+    public int[] distances(Town sourceVertex, List<Town> destinations) {
+        DynamicPathTree tree = dynamicTree(sourceVertex);
+        int[] distances = new int[destinations.size()];
+        for (int i = 0; i < distances.length; i++) distances[i] = tree.distance(destinations.get(i));
+        return distances;
+    }
+
+    /**
+     * Gets the number of shortest-path trees kept by {@link #shortestPathTree(Town)}.
+     *
+     * @return the tree cache size
+     */
+    public int getTreeCacheSize() {
+        return treeCacheSize;
+    }
+
+    /**
+     * Sets the number of shortest-path trees kept by {@link #shortestPathTree(Town)}. Each tree
+     * holds a distance and a road for every reachable town, so this bounds the memory spent on
+     * trees and the work of repairing them after each edit. The least recently used trees are
+     * dropped first.
+     *
+     * @param treeCacheSize the number of trees to keep, 0 to keep none
+     * @throws IllegalArgumentException if the size is negative
+     */
+    public void setTreeCacheSize(int treeCacheSize) {
+        if (treeCacheSize < 0) throw new IllegalArgumentException("Tree cache size cannot be negative");
+        this.treeCacheSize = treeCacheSize;
+        trimTrees();
     }
 
+    /**
+     * Gets the cached tree rooted at a town, building and caching it if needed.
+     */
+    DynamicPathTree dynamicTree(Town sourceVertex) {
+        DynamicPathTree tree = trees.get(sourceVertex);
+        if (tree != null) return tree;
+        int source = registry.idOf(sourceVertex);
+        if (source < 0) throw new IllegalArgumentException("Town is not in the graph");
+        tree = new DynamicPathTree(this, source);
+        if (treeCacheSize > 0) {
+            trees.put(sourceVertex, tree);
+            trimTrees();
+        }
+        return tree;
+    }
+
+    private void trimTrees() {
+        while (trees.size() > treeCacheSize) {
+            trees.remove(trees.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Gets the path found by the last call to {@link #shortestPath(Town, Town)}.
+     *
+     * @return the last path, empty if there was none
+     */
     public List<String> getShortestPath() {
         return shortestPath;
     }
+
+    /**
+     * Gets the number of landmarks used by {@link RoutingMode#ALT}.
+     *
+     * @return the landmark count
+     */
+    public int getLandmarkCount() {
+        return landmarkCount;
+    }
+
+    /**
+     * Sets the number of landmarks used by {@link RoutingMode#ALT}. More landmarks give tighter
+     * bounds at the cost of one full Dijkstra run and one int per town each. Existing landmark
+     * tables are discarded.
+     *
+     * @param landmarkCount the landmark count
+     * @throws IllegalArgumentException if the count is less than 1
+     */
+    public void setLandmarkCount(int landmarkCount) {
+        if (landmarkCount < 1) throw new IllegalArgumentException("Landmark count must be at least 1");
+        this.landmarkCount = landmarkCount;
+        landmarks = null;
+        astar = null;
+        hierarchy = null;
+        snapshot = null;
+    }
+
+    /**
+     * Builds the landmark tables for {@link RoutingMode#ALT} now rather than on the first query.
+     * The tables are discarded whenever a town or road is added or removed.
+     */
+    public void prepareLandmarks() {
+        landmarkIndex();
+    }
+
+    /**
+     * Gets the contraction hierarchy used by {@link RoutingMode#CONTRACTION_HIERARCHY}, building it
+     * if the graph has changed since it was last built. Call this after a batch of edits to pay the
+     * preprocessing cost up front, and use the returned object for its build and query statistics.
+     *
+     * @return the contraction hierarchy for the current graph
+     */
+    public ContractionHierarchy contractionHierarchy() {
+        if (hierarchy == null) hierarchy = ContractionHierarchy.build(routingGraph());
+        return hierarchy;
+    }
+
+    /**
+     * Gets the all-pairs table used by {@link RoutingMode#ALL_PAIRS}, building it if the graph has
+     * changed since it was last built.
+     *
+     * @return the all-pairs table for the current graph
+     * @throws IllegalArgumentException if the graph has more than {@value AllPairsTable#MAX_TOWNS}
+     *                                  towns
+     */
+    public AllPairsTable allPairsTable() {
+        if (allPairs == null) allPairs = AllPairsTable.build(routingGraph(), Runtime.getRuntime().availableProcessors());
+        return allPairs;
+    }
+
+    /**
+     * Gets the number of edits made to the graph. Every successful add or remove of a town or
+     * road increases it, so two equal versions mean the graph has not changed in between.
+     *
+     * @return the edit count
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Takes an immutable version of the graph that can be queried from other threads while this
+     * graph goes on being edited. The same version is returned until the graph changes, and it
+     * shares its compiled arrays with this graph's own routing.
+     *
+     * @return the current version of the graph
+     */
+    public GraphVersion snapshot() {
+        if (snapshot == null) snapshot = new GraphVersion(routingGraph(), version, routingMode, landmarkCount);
+        return snapshot;
+    }
+
+    /**
+     * Gets the neighbours of a town and the road reaching each. The table is live and must not be
+     * changed by the caller.
+     *
+     * @param town the registry id of a town in the graph
+     * @return the town's neighbour table
+     */
+    NeighbourTable neighbours(int town) {
+        return adjacency[town];
+    }
+
+    /**
+     * @return the registry numbering the graph's towns
+     */
+    TownRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Starts a group of edits that should count as one change. Until the matching
+     * {@link #endBatch()}, edits still update the towns, roads and sorted names, but compiled
+     * routing data, the snapshot and the version are left alone, so nothing should be queried in
+     * between. Batches may be nested.
+     */
+    void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a group of edits started by {@link #beginBatch()}. If any edit changed the graph, the
+     * version goes up by one and derived routing data is discarded once.
+     */
+    void endBatch() {
+        if (batchDepth == 0) throw new IllegalStateException("No batch in progress");
+        if (--batchDepth == 0 && batchChanged) {
+            batchChanged = false;
+            invalidateRouting();
+        }
+    }
+
+    private RoutingGraph routingGraph() {
+        if (routing == null) routing = RoutingGraph.of(this);
+        return routing;
+    }
+
+    private LandmarkIndex landmarkIndex() {
+        if (landmarks == null) landmarks = LandmarkIndex.build(routingGraph(), landmarkCount);
+        return landmarks;
+    }
+
+    private DijkstraSearch search() {
+        if (search == null) search = new DijkstraSearch(routingGraph());
+        return search;
+    }
+
+    private void invalidateRouting() {
+        if (batchDepth > 0) {
+            batchChanged = true;
+            return;
+        }
+        version++;
+        snapshot = null;
+        routing = null;
+        search = null;
+        bidirectional = null;
+        landmarks = null;
+        astar = null;
+        hierarchy = null;
+        allPairs = null;
+    }
 }
@@ -0,0 +1,169 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An ordered list of town and road edits for {@link TownGraphManager#apply(GraphBatch)}. The
+ * whole batch is checked before any of it is applied, so an invalid edit leaves the graph
+ * untouched; the valid batch is then applied in one pass and the graph's derived data (compiled
+ * routing, landmark tables, contraction hierarchy and the published {@link GraphVersion}) is
+ * rebuilt once rather than once per edit.
+ * <p>
+ * Each edit behaves like the {@link TownGraphManager} method of the same name. Edits apply in the
+ * order they were added, so a road may use a town added earlier in the same batch.
+ *
+ * @author Hussain Mohammad
+ */
+public final class GraphBatch {
+
+    private static final byte ADD_TOWN = 0;
+    private static final byte ADD_ROAD = 1;
+    private static final byte DELETE_ROAD = 2;
+    private static final byte DELETE_TOWN = 3;
+
+    private byte[] kinds = new byte[16];
+    private String[] firsts = new String[16];
+    private String[] seconds = new String[16];
+    private int[] distances = new int[16];
+    private String[] names = new String[16];
+    private int size;
+
+    /**
+     * Adds a town.
+     *
+     * @param name the town's name
+     * @return this batch
+     */
+    public GraphBatch addTown(String name) {
+        return add(ADD_TOWN, name, null, 0, null);
+    }
+
+    /**
+     * Adds a road between two towns, which must be in the graph or added earlier in the batch.
+     *
+     * @param town1    name of the first town
+     * @param town2    name of the second town
+     * @param distance distance of the road
+     * @param roadName name of the road
+     * @return this batch
+     */
+    public GraphBatch addRoad(String town1, String town2, int distance, String roadName) {
+        return add(ADD_ROAD, town1, town2, distance, roadName);
+    }
+
+    /**
+     * Deletes the named road between two towns.
+     *
+     * @param town1    name of the first town
+     * @param town2    name of the second town
+     * @param roadName name of the road
+     * @return this batch
+     */
+    public GraphBatch deleteRoadConnection(String town1, String town2, String roadName) {
+        return add(DELETE_ROAD, town1, town2, -1, roadName);
+    }
+
+    /**
+     * Deletes a town and all of its roads.
+     *
+     * @param name the town's name
+     * @return this batch
+     */
+    public GraphBatch deleteTown(String name) {
+        return add(DELETE_TOWN, name, null, 0, null);
+    }
+
+    /**
+     * @return the number of edits in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks every edit against the graph as it would be when the edit is reached. Towns added and
+     * deleted earlier in the batch are tracked by name, so this never changes the graph.
+     *
+     * @param graph the graph the batch will be applied to
+     * @throws IllegalArgumentException naming the first edit that would fail
+     */
+    void validate(Graph graph) {
+        Map<String, Boolean> present = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case ADD_TOWN:
+                    if (firsts[i] == null || firsts[i].isEmpty()) throw invalid(i, "town name cannot be null or empty");
+                    present.put(firsts[i], Boolean.TRUE);
+                    break;
+                case ADD_ROAD:
+                    if (!contains(graph, present, firsts[i]) || !contains(graph, present, seconds[i])) {
+                        throw invalid(i, "both towns must be in the graph");
+                    }
+                    if (distances[i] < 0) throw invalid(i, "distance cannot be negative");
+                    if (names[i] == null || names[i].isEmpty()) throw invalid(i, "road name cannot be null or empty");
+                    break;
+                case DELETE_TOWN:
+                    if (firsts[i] != null) present.put(firsts[i], Boolean.FALSE);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Applies every edit in order. The caller is expected to have validated the batch and to wrap
+     * this in {@link Graph#beginBatch()} and {@link Graph#endBatch()}.
+     *
+     * @param graph the graph to edit
+     * @return the number of edits that changed the graph
+     */
+    int applyTo(Graph graph) {
+        int changed = 0;
+        for (int i = 0; i < size; i++) {
+            boolean done;
+            switch (kinds[i]) {
+                case ADD_TOWN:
+                    done = graph.getTown(firsts[i]) == null && graph.addVertex(new Town(firsts[i]));
+                    break;
+                case ADD_ROAD:
+                    done = graph.addEdge(graph.getTown(firsts[i]), graph.getTown(seconds[i]), distances[i], names[i]) != null;
+                    break;
+                case DELETE_ROAD:
+                    done = graph.removeRoad(graph.getTown(firsts[i]), graph.getTown(seconds[i]), names[i]) != null;
+                    break;
+                default:
+                    done = graph.removeVertex(graph.getTown(firsts[i]));
+                    break;
+            }
+            if (done) changed++;
+        }
+        return changed;
+    }
+
+    private static boolean contains(Graph graph, Map<String, Boolean> present, String name) {
+        Boolean known = present.get(name);
+        return known != null ? known : name != null && graph.getTown(name) != null;
+    }
+
+    private IllegalArgumentException invalid(int index, String reason) {
+        return new IllegalArgumentException("Batch edit " + index + " is invalid: " + reason);
+    }
+
+    private GraphBatch add(byte kind, String first, String second, int distance, String name) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        kinds[size] = kind;
+        firsts[size] = first;
+        seconds[size] = second;
+        distances[size] = distance;
+        names[size++] = name;
+        return this;
+    }
+}
@@ -0,0 +1,58 @@
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests applying batches of edits through TownGraphManager.
+ * 
+ * @author Hussain Mohammad
+ */
+public class GraphBatchTest {
+	private TownGraphManager manager;
+
+	@Before
+	public void setUp() throws Exception {
+		manager = new TownGraphManager();
+		manager.addTown("Town_0");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		manager = null;
+	}
+
+	@Test
+	public void testApply() {
+		GraphBatch batch = new GraphBatch();
+		for (int i = 1; i <= 100; i++) {
+			batch.addTown("Town_" + i).addRoad("Town_" + (i - 1), "Town_" + i, 1, "Road_" + i);
+		}
+		batch.addRoad("Town_0", "Town_1", 5, "Duplicate");
+		batch.deleteRoadConnection("Town_50", "Town_51", "Road_51");
+		assertEquals(202, batch.size());
+		assertEquals(202, manager.apply(batch));
+		assertEquals(101, manager.allTowns().size());
+		assertEquals(100, manager.allRoads().size());
+		assertEquals("Road_1", manager.getRoad("Town_0", "Town_1"));
+		assertFalse(manager.containsRoadConnection("Town_50", "Town_51"));
+		GraphVersion version = manager.snapshot();
+		assertEquals(50, version.findPath(version.getTown("Town_0"), version.getTown("Town_50")).getDistance());
+	}
+
+	@Test
+	public void testInvalidBatchChangesNothing() {
+		long version = manager.publish().getVersion();
+		GraphBatch batch = new GraphBatch().addTown("Town_1").deleteTown("Town_0").addRoad("Town_0", "Town_1", 2, "Road_1");
+		try {
+			manager.apply(batch);
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("edit 2"));
+		}
+		assertTrue(manager.containsTown("Town_0"));
+		assertFalse(manager.containsTown("Town_1"));
+		assertEquals(version, manager.snapshot().getVersion());
+	}
+}
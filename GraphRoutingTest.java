@@ -0,0 +1,95 @@
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that every RoutingMode finds paths of the same length as plain Dijkstra.
+ * 
+ * @author Hussain Mohammad
+ */
+public class GraphRoutingTest {
+	private Graph graph;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[12];
+
+		for (int i = 1; i < 12; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+
+		graph.addEdge(town[1], town[2], 2, "Road_1");
+		graph.addEdge(town[1], town[3], 4, "Road_2");
+		graph.addEdge(town[1], town[5], 6, "Road_3");
+		graph.addEdge(town[3], town[7], 1, "Road_4");
+		graph.addEdge(town[3], town[8], 2, "Road_5");
+		graph.addEdge(town[4], town[8], 3, "Road_6");
+		graph.addEdge(town[6], town[9], 3, "Road_7");
+		graph.addEdge(town[9], town[10], 4, "Road_8");
+		graph.addEdge(town[8], town[10], 2, "Road_9");
+		graph.addEdge(town[5], town[10], 5, "Road_10");
+		graph.addEdge(town[10], town[11], 3, "Road_11");
+		graph.addEdge(town[2], town[11], 6, "Road_12");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+	}
+
+	@Test
+	public void testAllModesAgree() {
+		for (int s = 1; s < 12; s++) {
+			for (int d = 1; d < 12; d++) {
+				PathResult expected = graph.findPath(town[s], town[d], RoutingMode.DIJKSTRA);
+				for (RoutingMode mode : RoutingMode.values()) {
+					PathResult path = graph.findPath(town[s], town[d], mode);
+					assertEquals(mode + " " + s + "->" + d, expected.getDistance(), path.getDistance());
+					assertValidPath(path, town[s], town[d]);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testModesAfterEdit() {
+		for (RoutingMode mode : RoutingMode.values()) {
+			graph.setRoutingMode(mode);
+			assertEquals(8, graph.findPath(town[1], town[11]).getDistance());
+		}
+		graph.removeEdge(town[2], town[11], 6, "Road_12");
+		for (RoutingMode mode : RoutingMode.values()) {
+			graph.setRoutingMode(mode);
+			assertEquals(11, graph.findPath(town[1], town[11]).getDistance());
+		}
+	}
+
+	@Test
+	public void testDisconnected() {
+		Town island = new Town("Town_12");
+		graph.addVertex(island);
+		for (RoutingMode mode : RoutingMode.values())
+			assertFalse(graph.findPath(town[1], island, mode).isFound());
+	}
+
+	private void assertValidPath(PathResult path, Town source, Town destination) {
+		List<Town> towns = path.getTowns();
+		List<Road> roads = path.getRoads();
+		assertEquals(source, towns.get(0));
+		assertEquals(destination, towns.get(towns.size() - 1));
+		int total = 0;
+		for (int i = 0; i < roads.size(); i++) {
+			assertTrue(roads.get(i).contains(towns.get(i)));
+			assertTrue(roads.get(i).contains(towns.get(i + 1)));
+			total += roads.get(i).getDistance();
+		}
+		assertEquals(path.getDistance(), total);
+	}
+}
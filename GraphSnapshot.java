@@ -0,0 +1,559 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A compact binary image of a {@link Graph} that is opened by memory-mapping the file, so its
+ * arrays stay off the Java heap and a restart does not re-parse any text.
+ * <p>
+ * The file is a sequence of big-endian ints and longs:
+ * <pre>
+ * magic "TGS1", version, townCount n, slotCount m, stringCount s
+ * offsets[n+1]            CSR row starts; town u owns slots offsets[u]..offsets[u+1]-1
+ * targets[m]              neighbouring town id of each slot
+ * weights[m]              road distance of each slot
+ * roadNames[m]            string id of each slot's road name, complemented (~id) on the slot
+ *                         that sees the road from its destination end
+ * stringOffsets[s+1]      long byte offsets into the UTF-8 string data
+ * string data             town names are strings 0..n-1, road names follow
+ * </pre>
+ * Each road appears in two slots, one per end, except a road from a town to itself. Version 1
+ * files, whose string offsets are ints, can still be opened.
+ * <p>
+ * A single mapped buffer cannot exceed 2 GB, so the file is mapped in 1 GB segments and every
+ * position is a long. Ints never straddle two segments, because they all start at multiples of
+ * four; only string bytes may. Counts are ints, so a snapshot holds up to 2<sup>31</sup>-1 towns
+ * and slots, however large the file.
+ *
+ * @author Hussain Mohammad
+ */
+public final class GraphSnapshot {
+
+    private static final int MAGIC = 0x54475331;
+    private static final int VERSION = 2;
+    private static final int HEADER_INTS = 5;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int ADD_BLOCK = 1 << 14;
+
+    private final Segments file;
+    private final int townCount;
+    private final int slotCount;
+    private final int stringCount;
+    private final long targetsAt;
+    private final long weightsAt;
+    private final long namesAt;
+    private final long stringOffsetsAt;
+    private final int stringOffsetBytes;
+    private final long stringDataAt;
+
+    private GraphSnapshot(Segments file) throws IOException {
+        this.file = file;
+        if (file.size < HEADER_INTS * Integer.BYTES || file.getInt(0) != MAGIC) {
+            throw new IOException("Not a graph snapshot");
+        }
+        int version = file.getInt(4);
+        if (version != 1 && version != VERSION) {
+            throw new IOException("Unsupported graph snapshot version " + version);
+        }
+        townCount = file.getInt(8);
+        slotCount = file.getInt(12);
+        stringCount = file.getInt(16);
+        if (townCount < 0 || slotCount < 0 || stringCount < townCount || stringCount == Integer.MAX_VALUE) {
+            throw new IOException("Graph snapshot header is corrupt");
+        }
+        targetsAt = (HEADER_INTS + townCount + 1L) * Integer.BYTES;
+        weightsAt = targetsAt + (long) slotCount * Integer.BYTES;
+        namesAt = weightsAt + (long) slotCount * Integer.BYTES;
+        stringOffsetsAt = namesAt + (long) slotCount * Integer.BYTES;
+        stringOffsetBytes = version == 1 ? Integer.BYTES : Long.BYTES;
+        stringDataAt = stringOffsetsAt + (stringCount + 1L) * stringOffsetBytes;
+        if (stringDataAt > file.size || stringDataAt + stringOffset(stringCount) != file.size
+                || stringOffset(0) != 0 || offset(0) != 0 || offset(townCount) != slotCount) {
+            throw new IOException("Graph snapshot is truncated or corrupt");
+        }
+    }
+
+    /**
+     * Writes a snapshot of a graph, storing each distinct road name once. The file is streamed
+     * out and never held in memory as a whole.
+     *
+     * @param graph the graph to save
+     * @param file  the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Graph graph, Path file) throws IOException {
+        RoutingGraph compiled = RoutingGraph.of(graph);
+        int n = compiled.size();
+        Road[][] incident = new Road[n][];
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) {
+            incident[u] = graph.edgesOf(compiled.towns[u]).toArray(new Road[0]);
+            offsets[u + 1] = offsets[u] + incident[u].length;
+        }
+        int m = offsets[n];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+
+        Map<String, Integer> ids = new HashMap<>();
+        int[] nameIds = new int[m];
+        int stringCount = n;
+        String[] roadStrings = new String[m];
+        for (int u = 0; u < n; u++) {
+            for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) {
+                Road road = incident[u][slot - offsets[u]];
+                boolean forward = road.getSource().equals(compiled.towns[u]);
+                targets[slot] = compiled.idOf(forward ? road.getDestination() : road.getSource());
+                weights[slot] = road.getDistance();
+                Integer id = ids.get(road.getName());
+                if (id == null) {
+                    id = stringCount++;
+                    ids.put(road.getName(), id);
+                    roadStrings[id - n] = road.getName();
+                }
+                nameIds[slot] = forward ? id : ~id;
+            }
+        }
+        try (OutputStream stream = Files.newOutputStream(file);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeInt(stringCount);
+            for (int offset : offsets) out.writeInt(offset);
+            for (int target : targets) out.writeInt(target);
+            for (int weight : weights) out.writeInt(weight);
+            for (int nameId : nameIds) out.writeInt(nameId);
+            long offset = 0;
+            out.writeLong(offset);
+            for (int i = 0; i < stringCount; i++) {
+                offset += utf8Length(i < n ? compiled.towns[i].getName() : roadStrings[i - n]);
+                out.writeLong(offset);
+            }
+            for (int i = 0; i < stringCount; i++) {
+                out.write((i < n ? compiled.towns[i].getName() : roadStrings[i - n]).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Receives roads one at a time from a {@link RoadSource}.
+     */
+    interface RoadSink {
+        void road(int source, int destination, int distance, String name) throws IOException;
+    }
+
+    /**
+     * Produces the roads of a graph that is not held in memory. It must produce the same roads in
+     * the same order every time it runs, because {@link #write} reads it twice.
+     */
+    interface RoadSource {
+        void forEach(RoadSink sink) throws IOException;
+    }
+
+    /**
+     * Writes a snapshot from a stream of roads without building a graph. Only one int per town
+     * is held in memory; the file itself is filled through a writable memory mapping, in segments
+     * like the read-only one. Towns are identified by id, and every road name is stored as its own
+     * string.
+     *
+     * @param file      the file to write, replaced if it exists
+     * @param townCount the number of towns
+     * @param townName  the name of each town id
+     * @param roads     the roads, read twice
+     * @throws IOException if the file cannot be written or there are more slots or strings than
+     *                     an int can count
+     */
+    static void write(Path file, int townCount, IntFunction<String> townName, RoadSource roads) throws IOException {
+        int[] cursor = new int[townCount + 1];
+        long[] totals = new long[2];
+        roads.forEach((u, v, distance, name) -> {
+            cursor[u + 1]++;
+            if (u != v) cursor[v + 1]++;
+            totals[0]++;
+            totals[1] += utf8Length(name);
+        });
+        long roadCount = totals[0];
+        long townBytes = 0;
+        for (int u = 0; u < townCount; u++) {
+            townBytes += utf8Length(townName.apply(u));
+            cursor[u + 1] += cursor[u];
+        }
+        long slots = cursor[townCount];
+        long stringCount = townCount + roadCount;
+        if (slots > Integer.MAX_VALUE || stringCount >= Integer.MAX_VALUE) {
+            throw new IOException("Graph has too many roads for a snapshot");
+        }
+        int m = (int) slots;
+        long targetsAt = (HEADER_INTS + townCount + 1L) * Integer.BYTES;
+        long weightsAt = targetsAt + (long) m * Integer.BYTES;
+        long namesAt = weightsAt + (long) m * Integer.BYTES;
+        long stringsAt = namesAt + (long) m * Integer.BYTES;
+        long dataAt = stringsAt + (stringCount + 1) * Long.BYTES;
+        long total = dataAt + townBytes + totals[1];
+
+        Files.deleteIfExists(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segments out = Segments.map(channel, FileChannel.MapMode.READ_WRITE, total, SEGMENT_SHIFT);
+            int[] header = { MAGIC, VERSION, townCount, m, (int) stringCount };
+            for (int i = 0; i < HEADER_INTS; i++) out.putInt((long) i * Integer.BYTES, header[i]);
+            for (int u = 0; u <= townCount; u++) out.putInt((HEADER_INTS + (long) u) * Integer.BYTES, cursor[u]);
+            long[] strings = { stringsAt + Long.BYTES, dataAt };
+            out.putLong(stringsAt, 0);
+            for (int u = 0; u < townCount; u++) putString(out, townName.apply(u), strings, dataAt);
+            int[] nextName = { townCount };
+            roads.forEach((u, v, distance, name) -> {
+                int id = nextName[0]++;
+                long slot = cursor[u]++;
+                out.putInt(targetsAt + slot * Integer.BYTES, v);
+                out.putInt(weightsAt + slot * Integer.BYTES, distance);
+                out.putInt(namesAt + slot * Integer.BYTES, id);
+                if (u != v) {
+                    slot = cursor[v]++;
+                    out.putInt(targetsAt + slot * Integer.BYTES, u);
+                    out.putInt(weightsAt + slot * Integer.BYTES, distance);
+                    out.putInt(namesAt + slot * Integer.BYTES, ~id);
+                }
+                putString(out, name, strings, dataAt);
+            });
+            out.force();
+        }
+    }
+
+    /**
+     * Appends a string to the string data and records where it ends. {@code cursors} holds the
+     * position of the next string offset and of the next data byte.
+     */
+    private static void putString(Segments out, String s, long[] cursors, long dataAt) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.put(cursors[1], bytes);
+        cursors[1] += bytes.length;
+        out.putLong(cursors[0], cursors[1] - dataAt);
+        cursors[0] += Long.BYTES;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Opens a snapshot by memory-mapping the file. Only the header is read up front; everything
+     * else is paged in by the operating system as it is touched.
+     *
+     * @param file the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static GraphSnapshot open(Path file) throws IOException {
+        return open(file, SEGMENT_SHIFT);
+    }
+
+    /**
+     * Opens a snapshot mapped in segments of {@code 1 << segmentShift} bytes. Small segments are
+     * only useful to test reads that cross a segment boundary.
+     *
+     * @param file         the snapshot file
+     * @param segmentShift the base-2 logarithm of the segment size, from 2 to 30
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static GraphSnapshot open(Path file, int segmentShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new GraphSnapshot(Segments.map(channel, FileChannel.MapMode.READ_ONLY, channel.size(), segmentShift));
+        }
+    }
+
+    /**
+     * Opens a snapshot and builds a mutable graph from it.
+     *
+     * @param file the snapshot file
+     * @return a graph equal to the one that was saved
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static Graph load(Path file) throws IOException {
+        return open(file).toGraph();
+    }
+
+    /**
+     * Builds a mutable graph holding the towns and roads of this snapshot.
+     *
+     * @return a new graph
+     * @throws IOException if the snapshot is corrupt
+     */
+    public Graph toGraph() throws IOException {
+        Graph graph = new Graph();
+        addTo(graph);
+        return graph;
+    }
+
+    /**
+     * Adds the towns and roads of this snapshot to a graph. Roads whose towns are already joined
+     * by a road of the same name are skipped. The whole snapshot is added as one batch, through
+     * {@link Graph#addRoads} a block of roads at a time, so the graph's version goes up once.
+     * <p>
+     * To route over a snapshot without copying it onto the heap at all, open it as an
+     * {@link OffHeapGraph} instead.
+     *
+     * @param graph the graph to add to
+     * @throws IOException if the snapshot is corrupt, in which case the graph is left unchanged
+     */
+    public void addTo(Graph graph) throws IOException {
+        validate();
+        Town[] towns = new Town[townCount];
+        int block = Math.min(ADD_BLOCK, slotCount);
+        Town[] sources = new Town[block];
+        Town[] destinations = new Town[block];
+        int[] distances = new int[block];
+        String[] names = new String[block];
+        graph.beginBatch();
+        try {
+            for (int u = 0; u < townCount; u++) {
+                towns[u] = new Town(string(u));
+                graph.addVertex(towns[u]);
+            }
+            int count = 0;
+            for (int u = 0; u < townCount; u++) {
+                for (int slot = offset(u), end = offset(u + 1); slot < end; slot++) {
+                    int nameId = roadName(slot);
+                    if (nameId < 0) continue;
+                    sources[count] = towns[u];
+                    destinations[count] = towns[target(slot)];
+                    distances[count] = weight(slot);
+                    names[count] = string(nameId);
+                    if (++count == block) {
+                        graph.addRoads(sources, destinations, distances, names, count);
+                        count = 0;
+                    }
+                }
+            }
+            if (count > 0) graph.addRoads(sources, destinations, distances, names, count);
+        } finally {
+            graph.endBatch();
+        }
+    }
+
+    /**
+     * Checks everything the header does not cover: that rows do not overlap, that every slot
+     * leads to a town and names a road, that no distance is negative and that no string is empty
+     * or runs backwards. Opening reads only the header, so this is the one full pass over the
+     * file, made before anything is built from it.
+     *
+     * @throws IOException if the snapshot is corrupt
+     */
+    void validate() throws IOException {
+        for (int u = 0; u < townCount; u++) {
+            if (offset(u) > offset(u + 1)) throw new IOException("Graph snapshot row " + u + " is corrupt");
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            int target = target(slot);
+            int name = roadName(slot);
+            if (name < 0) name = ~name;
+            if (target < 0 || target >= townCount || weight(slot) < 0 || name < townCount || name >= stringCount) {
+                throw new IOException("Graph snapshot slot " + slot + " is corrupt");
+            }
+        }
+        for (int id = 0; id < stringCount; id++) {
+            if (stringOffset(id) >= stringOffset(id + 1)) {
+                throw new IOException("Graph snapshot string " + id + " is corrupt");
+            }
+        }
+    }
+
+    /**
+     * @return the number of towns
+     */
+    public int getTownCount() {
+        return townCount;
+    }
+
+    /**
+     * @return the number of roads
+     */
+    public int getRoadCount() {
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) if (roadName(slot) >= 0) count++;
+        return count;
+    }
+
+    /**
+     * @param id a town id between 0 and {@link #getTownCount()} - 1
+     * @return the name of the town
+     */
+    public String getTownName(int id) {
+        if (id < 0 || id >= townCount) throw new IndexOutOfBoundsException("No town with id " + id);
+        return string(id);
+    }
+
+    /**
+     * @param id a string id; towns are 0..n-1 and road names follow
+     * @return the string
+     */
+    String string(int id) {
+        long start = stringOffset(id);
+        byte[] bytes = new byte[(int) (stringOffset(id + 1) - start)];
+        file.get(stringDataAt + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes a stored string's UTF-8 bytes in place, consistently with {@link #hash(byte[])}.
+     *
+     * @param id a string id
+     * @return the hash of the string
+     */
+    int stringHash(int id) {
+        int h = 0;
+        long end = stringDataAt + stringOffset(id + 1);
+        for (long i = stringDataAt + stringOffset(id); i < end; i++) h = 31 * h + file.get(i);
+        return h;
+    }
+
+    /**
+     * Compares a stored string with UTF-8 bytes without decoding it.
+     *
+     * @param id    a string id
+     * @param bytes the UTF-8 bytes to compare with
+     * @return true if the string has exactly these bytes
+     */
+    boolean stringEquals(int id, byte[] bytes) {
+        long start = stringDataAt + stringOffset(id);
+        if (stringDataAt + stringOffset(id + 1) - start != bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if (file.get(start + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param bytes UTF-8 bytes
+     * @return the hash {@link #stringHash(int)} gives a string with these bytes
+     */
+    static int hash(byte[] bytes) {
+        int h = 0;
+        for (byte b : bytes) h = 31 * h + b;
+        return h;
+    }
+
+    /**
+     * @param town a town id, or {@link #getTownCount()} for the end of the last row
+     * @return the first slot of the town's row
+     */
+    int offset(int town) {
+        return file.getInt((HEADER_INTS + (long) town) * Integer.BYTES);
+    }
+
+    /**
+     * @param slot a slot
+     * @return the neighbouring town id of the slot
+     */
+    int target(int slot) {
+        return file.getInt(targetsAt + (long) slot * Integer.BYTES);
+    }
+
+    /**
+     * @param slot a slot
+     * @return the road distance of the slot
+     */
+    int weight(int slot) {
+        return file.getInt(weightsAt + (long) slot * Integer.BYTES);
+    }
+
+    /**
+     * @param slot a slot
+     * @return the road name string id of the slot, complemented on the destination end's slot
+     */
+    int roadName(int slot) {
+        return file.getInt(namesAt + (long) slot * Integer.BYTES);
+    }
+
+    private long stringOffset(int id) {
+        long position = stringOffsetsAt + (long) id * stringOffsetBytes;
+        return stringOffsetBytes == Integer.BYTES ? file.getInt(position) : file.getLong(position);
+    }
+
+    /**
+     * A file mapped as a run of buffers of {@code 1 << shift} bytes each, read and written at long
+     * positions. Ints and longs must start at multiples of four, so an int never spans two
+     * buffers; a long is read as two ints.
+     */
+    private static final class Segments {
+        final long size;
+        private final MappedByteBuffer[] buffers;
+        private final int shift;
+        private final int mask;
+
+        private Segments(MappedByteBuffer[] buffers, long size, int shift) {
+            this.buffers = buffers;
+            this.size = size;
+            this.shift = shift;
+            this.mask = (1 << shift) - 1;
+        }
+
+        static Segments map(FileChannel channel, FileChannel.MapMode mode, long size, int shift) throws IOException {
+            if (shift < 2 || shift > 30) throw new IllegalArgumentException("Segment shift must be from 2 to 30");
+            long length = 1L << shift;
+            MappedByteBuffer[] buffers = new MappedByteBuffer[(int) ((size + length - 1) >>> shift)];
+            for (int i = 0; i < buffers.length; i++) {
+                long start = (long) i << shift;
+                buffers[i] = channel.map(mode, start, Math.min(length, size - start));
+            }
+            return new Segments(buffers, size, shift);
+        }
+
+        int getInt(long position) {
+            return buffers[(int) (position >>> shift)].getInt((int) position & mask);
+        }
+
+        long getLong(long position) {
+            return (long) getInt(position) << 32 | (getInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+        }
+
+        byte get(long position) {
+            return buffers[(int) (position >>> shift)].get((int) position & mask);
+        }
+
+        void get(long position, byte[] bytes) {
+            for (int done = 0; done < bytes.length; ) {
+                MappedByteBuffer buffer = buffers[(int) ((position + done) >>> shift)];
+                int at = (int) (position + done) & mask;
+                int length = Math.min(bytes.length - done, buffer.capacity() - at);
+                buffer.get(at, bytes, done, length);
+                done += length;
+            }
+        }
+
+        void putInt(long position, int value) {
+            buffers[(int) (position >>> shift)].putInt((int) position & mask, value);
+        }
+
+        void putLong(long position, long value) {
+            putInt(position, (int) (value >>> 32));
+            putInt(position + Integer.BYTES, (int) value);
+        }
+
+        void put(long position, byte[] bytes) {
+            for (int done = 0; done < bytes.length; ) {
+                MappedByteBuffer buffer = buffers[(int) ((position + done) >>> shift)];
+                int at = (int) (position + done) & mask;
+                int length = Math.min(bytes.length - done, buffer.capacity() - at);
+                buffer.put(at, bytes, done, length);
+                done += length;
+            }
+        }
+
+        void force() {
+            for (MappedByteBuffer buffer : buffers) buffer.force();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Round-trip tests for the binary graph snapshot format.
+ * 
+ * @author Hussain Mohammad
+ */
+public class GraphSnapshotTest {
+	private Graph graph;
+	private Town[] town;
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[5];
+		for (int i = 1; i < 5; i++) {
+			town[i] = new Town("Town " + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[1], town[2], 3, "Main Street");
+		graph.addEdge(town[3], town[2], 4, "Main Street");
+		graph.addEdge(town[1], town[3], 9, "Back Road");
+		file = File.createTempFile("towns", ".tgs");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(file.toPath());
+		graph = null;
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		GraphSnapshot.save(graph, file.toPath());
+		Graph loaded = GraphSnapshot.load(file.toPath());
+		assertEquals(graph.vertexSet(), loaded.vertexSet());
+		assertEquals(3, loaded.edgeSet().size());
+		assertEquals("Town 3 via Main Street to Town 2 4 mi", loaded.getEdge(town[2], town[3]).toString());
+		assertEquals(7, loaded.findPath(town[1], town[3]).getDistance());
+		assertTrue(loaded.edgesOf(town[4]).isEmpty());
+	}
+
+	@Test
+	public void testMappedCounts() throws IOException {
+		GraphSnapshot.save(graph, file.toPath());
+		GraphSnapshot snapshot = GraphSnapshot.open(file.toPath());
+		assertEquals(4, snapshot.getTownCount());
+		assertEquals(3, snapshot.getRoadCount());
+	}
+
+	@Test(expected = IOException.class)
+	public void testRejectsTextFile() throws IOException {
+		Files.write(file.toPath(), "Main Street,3;Town 1;Town 2".getBytes());
+		GraphSnapshot.open(file.toPath());
+	}
+
+	@Test
+	public void testLoadIsOneEdit() throws IOException {
+		GraphSnapshot.save(graph, file.toPath());
+		Graph loaded = new Graph();
+		GraphSnapshot.open(file.toPath()).addTo(loaded);
+		assertEquals(1, loaded.getVersion());
+		assertEquals(3, loaded.edgeSet().size());
+	}
+
+	@Test
+	public void testRejectsCorruptHeader() throws IOException {
+		GraphSnapshot.save(graph, file.toPath());
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		for (int field = 2; field < 5; field++) {
+			byte[] corrupt = bytes.clone();
+			ByteBuffer.wrap(corrupt).putInt(field * Integer.BYTES, -5);
+			Files.write(file.toPath(), corrupt);
+			try {
+				GraphSnapshot.open(file.toPath());
+				fail("Header field " + field + " was not checked");
+			} catch (IOException expected) {
+			}
+		}
+	}
+
+	@Test
+	public void testRejectsCorruptSlots() throws IOException {
+		GraphSnapshot.save(graph, file.toPath());
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		ByteBuffer header = ByteBuffer.wrap(bytes);
+		int towns = header.getInt(8), slots = header.getInt(12), strings = header.getInt(16);
+		int targetsAt = (5 + towns + 1) * Integer.BYTES;
+		int namesAt = targetsAt + 2 * slots * Integer.BYTES;
+		int[][] corruptions = { { targetsAt, towns }, { targetsAt, -1 }, { namesAt, strings }, { namesAt, ~strings } };
+		for (int[] corruption : corruptions) {
+			byte[] corrupt = bytes.clone();
+			ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+			Files.write(file.toPath(), corrupt);
+			Graph loaded = new Graph();
+			try {
+				GraphSnapshot.open(file.toPath()).addTo(loaded);
+				fail("Slot value " + corruption[1] + " was not checked");
+			} catch (IOException expected) {
+			}
+			assertTrue(loaded.vertexSet().isEmpty());
+			assertEquals(0, loaded.getVersion());
+			try {
+				OffHeapGraph.open(file.toPath());
+				fail("Slot value " + corruption[1] + " was not checked");
+			} catch (IOException expected) {
+			}
+		}
+	}
+}
@@ -0,0 +1,321 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable, array-backed version of a {@link Graph}, for readers that must not see edits
+ * while they work. A version is taken with {@link Graph#snapshot()} or published by
+ * {@link TownGraphManager#publish()}; later edits to the graph produce a new version and never
+ * change this one.
+ * <p>
+ * Any number of threads may query a version at once. Landmark tables and the contraction hierarchy
+ * are built on first use and shared, and each thread searches with its own arrays, so a long route
+ * computation holds no lock and cannot be disturbed by a writer preparing the next version.
+ * <p>
+ * A version holds only the shortest road between each pair of towns, which is all routing needs;
+ * other roads between the same towns are left out.
+ *
+ * @author Hussain Mohammad
+ */
+public final class GraphVersion {
+
+    private static final ThreadLocal<Searches> SEARCHES = new ThreadLocal<>();
+
+    private final RoutingGraph graph;
+    private final long version;
+    private final RoutingMode routingMode;
+    private final int landmarkCount;
+    private final List<Town> towns;
+    private volatile LandmarkIndex landmarks;
+    private volatile ContractionHierarchy hierarchy;
+    private volatile AllPairsTable allPairs;
+
+    /**
+     * Wraps a compiled graph.
+     *
+     * @param graph         the compiled graph, which must not be shared with a writer
+     * @param version       the {@link Graph#getVersion()} it was compiled from
+     * @param routingMode   the search strategy used by {@link #findPath(Town, Town)}
+     * @param landmarkCount the number of landmarks for {@link RoutingMode#ALT}
+     */
+    GraphVersion(RoutingGraph graph, long version, RoutingMode routingMode, int landmarkCount) {
+        this.graph = graph;
+        this.version = version;
+        this.routingMode = routingMode;
+        this.landmarkCount = landmarkCount;
+        this.towns = Collections.unmodifiableList(Arrays.asList(graph.towns));
+    }
+
+    /**
+     * @return the {@link Graph#getVersion()} of the graph this version was taken from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the number of towns
+     */
+    public int getTownCount() {
+        return graph.size();
+    }
+
+    /**
+     * @return the number of roads, counting every road between the same two towns and every road
+     *         from a town to itself, as {@link Graph#edgeSet()} does
+     */
+    public int getRoadCount() {
+        return graph.roadCount;
+    }
+
+    /**
+     * @return every town, in no particular order
+     */
+    public List<Town> getTowns() {
+        return towns;
+    }
+
+    /**
+     * Finds the town with the given name.
+     *
+     * @param name the town name
+     * @return the town, or null if there is none
+     */
+    public Town getTown(String name) {
+        int id = graph.idOf(name);
+        return id < 0 ? null : graph.towns[id];
+    }
+
+    /**
+     * Checks if a town exists in this version.
+     *
+     * @param town the town to check
+     * @return true if the town exists, false otherwise
+     */
+    public boolean containsVertex(Town town) {
+        return graph.idOf(town) >= 0;
+    }
+
+    /**
+     * Retrieves the road connecting two towns, if it exists.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return the connecting road, or null if none exists
+     */
+    public Road getEdge(Town sourceVertex, Town destinationVertex) {
+        int source = graph.idOf(sourceVertex);
+        int destination = graph.idOf(destinationVertex);
+        if (source < 0 || destination < 0) return null;
+        for (int slot = graph.offsets[source], end = graph.offsets[source + 1]; slot < end; slot++) {
+            if (graph.targets[slot] == destination) return graph.roads[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a road exists between two towns.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return true if the road exists, false otherwise
+     */
+    public boolean containsEdge(Town sourceVertex, Town destinationVertex) {
+        return getEdge(sourceVertex, destinationVertex) != null;
+    }
+
+    /**
+     * Retrieves all roads connected to a specific town.
+     *
+     * @param town the town whose roads are to be retrieved
+     * @return a set of connected roads, empty if the town has none
+     * @throws IllegalArgumentException if the town is not in this version
+     */
+    public Set<Road> edgesOf(Town town) {
+        int id = graph.idOf(town);
+        if (id < 0) throw new IllegalArgumentException("Town is not in the graph");
+        Set<Road> roads = new HashSet<>();
+        for (int slot = graph.offsets[id], end = graph.offsets[id + 1]; slot < end; slot++) {
+            roads.add(graph.roads[slot]);
+        }
+        return roads;
+    }
+
+    /**
+     * Finds the shortest path from one town to another.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return an ArrayList of Strings describing the path, empty if there is none
+     */
+    public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex) {
+        return new ArrayList<>(findPath(sourceVertex, destinationVertex).getSteps());
+    }
+
+    /**
+     * Finds the shortest path from one town to another with the routing mode the graph had when
+     * this version was taken.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the path, which is not found if either town is missing or they are disconnected
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex) {
+        return findPath(sourceVertex, destinationVertex, routingMode);
+    }
+
+    /**
+     * Finds the shortest path from one town to another with the given search strategy.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @param mode              the search strategy to use for this query
+     * @return the path, which is not found if either town is missing or they are disconnected
+     * @throws NullPointerException if the mode is null
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex, RoutingMode mode) {
+        Objects.requireNonNull(mode, "Routing mode cannot be null");
+        int source = graph.idOf(sourceVertex);
+        int destination = graph.idOf(destinationVertex);
+        if (source < 0 || destination < 0) return PathResult.notFound(0);
+        switch (mode) {
+            case BIDIRECTIONAL:
+                return searches().bidirectional().run(source, destination);
+            case ALT:
+                return searches().astar(landmarks()).run(source, destination);
+            case CONTRACTION_HIERARCHY:
+                return searches().hierarchy(hierarchy()).run(source, destination);
+            case ALL_PAIRS:
+                return allPairs().run(source, destination);
+            default:
+                DijkstraSearch dijkstra = DijkstraSearch.forThread(graph);
+                dijkstra.run(source, destination);
+                return dijkstra.pathTo(destination);
+        }
+    }
+
+    /**
+     * Builds whatever the given routing mode needs now, so the first queries do not pay for it.
+     *
+     * @param mode the routing mode to prepare
+     * @throws NullPointerException if the mode is null
+     */
+    public void prepare(RoutingMode mode) {
+        Objects.requireNonNull(mode, "Routing mode cannot be null");
+        if (mode == RoutingMode.ALT) landmarks();
+        if (mode == RoutingMode.CONTRACTION_HIERARCHY) hierarchy();
+        if (mode == RoutingMode.ALL_PAIRS) allPairs();
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a town over the whole version, keeping the result in the
+     * calling thread's search state.
+     *
+     * @param sourceVertex starting town
+     * @return the search holding the distances, valid until the thread's next query
+     * @throws IllegalArgumentException if the town is not in this version
+     */
+    DijkstraSearch dijkstraFrom(Town sourceVertex) {
+        int source = graph.idOf(sourceVertex);
+        if (source < 0) throw new IllegalArgumentException("Town is not in the graph");
+        DijkstraSearch dijkstra = DijkstraSearch.forThread(graph);
+        dijkstra.run(source, -1);
+        return dijkstra;
+    }
+
+    /**
+     * @return the compiled graph behind this version
+     */
+    RoutingGraph routingGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets the calling thread's search state, rebinding it to this version's compiled graph if the
+     * thread last searched another one.
+     */
+    private Searches searches() {
+        Searches local = SEARCHES.get();
+        if (local == null || local.graph != graph) {
+            local = new Searches(graph);
+            SEARCHES.set(local);
+        }
+        return local;
+    }
+
+    private LandmarkIndex landmarks() {
+        LandmarkIndex index = landmarks;
+        if (index != null) return index;
+        synchronized (this) {
+            if (landmarks == null) landmarks = LandmarkIndex.build(graph, landmarkCount);
+            return landmarks;
+        }
+    }
+
+    private ContractionHierarchy hierarchy() {
+        ContractionHierarchy index = hierarchy;
+        if (index != null) return index;
+        synchronized (this) {
+            if (hierarchy == null) hierarchy = ContractionHierarchy.build(graph);
+            return hierarchy;
+        }
+    }
+
+    private AllPairsTable allPairs() {
+        AllPairsTable table = allPairs;
+        if (table != null) return table;
+        synchronized (this) {
+            if (allPairs == null) allPairs = AllPairsTable.build(graph, Runtime.getRuntime().availableProcessors());
+            return allPairs;
+        }
+    }
+
+    /**
+     * The search state of one thread for one compiled graph, created on the thread's first query
+     * of each kind; plain Dijkstra keeps its own through {@link DijkstraSearch#forThread}. A thread
+     * keeps a single instance, replaced when it moves to another graph, so it holds on to the
+     * last graph it searched and nothing older. The state refers to the graph and its indexes but
+     * never to a version, so a version that is no longer used can be collected even while threads
+     * that searched it live on.
+     */
+    private static final class Searches {
+        final RoutingGraph graph;
+        private BidirectionalSearch bidirectional;
+        private AStarSearch astar;
+        private LandmarkIndex astarLandmarks;
+        private ContractionHierarchy.Query hierarchy;
+        private ContractionHierarchy queryHierarchy;
+
+        Searches(RoutingGraph graph) {
+            this.graph = graph;
+        }
+
+        BidirectionalSearch bidirectional() {
+            if (bidirectional == null) bidirectional = new BidirectionalSearch(graph);
+            return bidirectional;
+        }
+
+        /**
+         * Versions that share a compiled graph may still have landmark tables of their own.
+         */
+        AStarSearch astar(LandmarkIndex landmarks) {
+            if (astarLandmarks != landmarks) {
+                astar = new AStarSearch(graph, landmarks);
+                astarLandmarks = landmarks;
+            }
+            return astar;
+        }
+
+        ContractionHierarchy.Query hierarchy(ContractionHierarchy index) {
+            if (queryHierarchy != index) {
+                hierarchy = index.newQuery();
+                queryHierarchy = index;
+            }
+            return hierarchy;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that published graph versions stay fixed while the manager is edited.
+ * 
+ * @author Hussain Mohammad
+ */
+public class GraphVersionTest {
+	private TownGraphManager manager;
+
+	@Before
+	public void setUp() throws Exception {
+		manager = new TownGraphManager();
+		for (int i = 1; i <= 4; i++) {
+			manager.addTown("Town_" + i);
+		}
+		manager.addRoad("Town_1", "Town_2", 3, "Road_1");
+		manager.addRoad("Town_2", "Town_3", 3, "Road_2");
+		manager.addRoad("Town_3", "Town_4", 3, "Road_3");
+		manager.publish();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		manager = null;
+	}
+
+	@Test
+	public void testVersionIgnoresLaterEdits() {
+		GraphVersion before = manager.snapshot();
+		manager.addRoad("Town_1", "Town_4", 2, "Shortcut");
+		manager.deleteTown("Town_3");
+		assertSame(before, manager.snapshot());
+		assertEquals(4, before.getTownCount());
+		assertEquals(3, before.getRoadCount());
+		assertEquals(9, before.findPath(before.getTown("Town_1"), before.getTown("Town_4")).getDistance());
+		assertNull(before.getEdge(before.getTown("Town_1"), before.getTown("Town_4")));
+
+		GraphVersion after = manager.publish();
+		assertTrue(after.getVersion() > before.getVersion());
+		assertNull(after.getTown("Town_3"));
+		assertNull(after.getTown(""));
+		assertNull(after.getTown(null));
+		assertEquals(2, after.findPath(after.getTown("Town_1"), after.getTown("Town_4")).getDistance());
+		assertEquals("Shortcut", after.getEdge(after.getTown("Town_4"), after.getTown("Town_1")).getName());
+	}
+
+	@Test
+	public void testRoutingModesAgree() {
+		GraphVersion version = manager.snapshot();
+		Town start = version.getTown("Town_1");
+		Town end = version.getTown("Town_4");
+		for (RoutingMode mode : RoutingMode.values()) {
+			assertEquals(9, version.findPath(start, end, mode).getDistance());
+		}
+		assertEquals(2, version.edgesOf(version.getTown("Town_2")).size());
+	}
+
+	@Test
+	public void testRoadCountKeepsParallelRoadsAndLoops() {
+		manager.addRoad("Town_1", "Town_2", 5, "Old Road");
+		manager.addRoad("Town_4", "Town_4", 1, "Ring Road");
+		assertEquals(5, manager.publish().getRoadCount());
+	}
+}
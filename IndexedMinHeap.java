@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap over dense int ids {@code 0..capacity-1} with int keys. Every id has a fixed
+ * slot in a position table, so decrease-key is O(log n) and membership is O(1). The heap holds
+ * only primitive arrays and never allocates after construction.
+ * 
+ * @author Hussain Mohammad
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] pos;
+    private final int[] keys;
+    private int size;
+
+    /**
+     * Creates an empty heap able to hold ids {@code 0..capacity-1}.
+     * 
+     * @param capacity the number of distinct ids
+     */
+    IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        pos = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    /**
+     * @return true if the heap holds no ids
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of queued ids
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param id the id to check
+     * @return true if the id is currently queued
+     */
+    boolean contains(int id) {
+        return pos[id] >= 0;
+    }
+
+    /**
+     * Queues the id with the given key, or lowers its key if it is already queued with a larger one.
+     * 
+     * @param id  the id to queue
+     * @param key the new key
+     */
+    void insertOrDecrease(int id, int key) {
+        int slot = pos[id];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = id;
+            pos[id] = slot;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        siftUp(slot);
+    }
+
+    /**
+     * @return the key of the id with the smallest key
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int peekKey() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return keys[heap[0]];
+    }
+
+    /**
+     * Removes and returns the id with the smallest key.
+     * 
+     * @return the removed id
+     * @throws NoSuchElementException if the heap is empty
+     */
+    int poll() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        int top = heap[0];
+        pos[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Empties the heap in O(size) so it can be reused by the next search.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) pos[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int id = heap[slot];
+        int key = keys[id];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) break;
+            heap[slot] = parentId;
+            pos[parentId] = slot;
+            slot = parent;
+        }
+        heap[slot] = id;
+        pos[id] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int id = heap[slot];
+        int key = keys[id];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) child = right;
+            int childId = heap[child];
+            if (key <= keys[childId]) break;
+            heap[slot] = childId;
+            pos[childId] = slot;
+            slot = child;
+        }
+        heap[slot] = id;
+        pos[id] = slot;
+    }
+}
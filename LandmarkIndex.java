@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+/**
+ * Landmark distance tables for A* search with ALT (A*, landmarks, triangle inequality) lower
+ * bounds. For every landmark {@code L} and towns {@code v}, {@code t}, the triangle inequality
+ * gives {@code d(v,t) >= |d(L,t) - d(L,v)|}; the largest such bound over all landmarks is an
+ * admissible and consistent heuristic. Distances are stored town-major in one int array so the
+ * bounds for a town are read from a single contiguous run.
+ * 
+ * @author Hussain Mohammad
+ */
+final class LandmarkIndex {
+
+    private final int count;
+    private final int[] landmarks;
+    private final int[] table;
+
+    private LandmarkIndex(int[] landmarks, int[] table) {
+        this.count = landmarks.length;
+        this.landmarks = landmarks;
+        this.table = table;
+    }
+
+    /**
+     * Picks landmarks by farthest-point selection and computes their distance tables. Each new
+     * landmark is the town farthest from all landmarks chosen so far; towns not yet reachable from
+     * any landmark are taken first, so every connected component gets at least one.
+     * 
+     * @param graph the graph to preprocess
+     * @param count the maximum number of landmarks
+     * @return the landmark index
+     */
+    static LandmarkIndex build(RoutingGraph graph, int count) {
+        int n = graph.size();
+        int k = Math.min(count, n);
+        int[] landmarks = new int[k];
+        int[] table = new int[n * k];
+        int[] nearest = new int[n];
+        Arrays.fill(nearest, DijkstraSearch.UNREACHABLE);
+        DijkstraSearch search = new DijkstraSearch(graph);
+        int next = 0;
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = next;
+            search.run(next, -1);
+            int farthest = -1;
+            for (int v = 0; v < n; v++) {
+                int d = search.distance(v);
+                table[v * k + i] = d;
+                if (d < nearest[v]) nearest[v] = d;
+                if (farthest < 0 || nearest[v] > nearest[farthest]) farthest = v;
+            }
+            next = farthest;
+        }
+        return new LandmarkIndex(landmarks, table);
+    }
+
+    /**
+     * Computes a lower bound on the distance between two towns.
+     * 
+     * @param node   a town id
+     * @param target the target id
+     * @return a lower bound on the distance, or {@link DijkstraSearch#UNREACHABLE} if the towns
+     *         are provably in different components
+     */
+    int lowerBound(int node, int target) {
+        int bound = 0;
+        int a = node * count, b = target * count;
+        for (int i = 0; i < count; i++) {
+            int fromNode = table[a + i], fromTarget = table[b + i];
+            if (fromNode == DijkstraSearch.UNREACHABLE || fromTarget == DijkstraSearch.UNREACHABLE) {
+                if (fromNode != fromTarget) return DijkstraSearch.UNREACHABLE;
+                continue;
+            }
+            int diff = Math.abs(fromTarget - fromNode);
+            if (diff > bound) bound = diff;
+        }
+        return bound;
+    }
+
+    /**
+     * @return the number of landmarks
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @param i a landmark index
+     * @return the town id of the landmark
+     */
+    int landmark(int i) {
+        return landmarks[i];
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * The neighbours of one town in a {@link Graph}, keyed by the {@link TownRegistry} id of the town
+ * at the other end, with the shortest road reaching each. An open-addressing table with linear
+ * probing over two parallel arrays, so a lookup hashes one int and a road network's typical four
+ * or so neighbours fit in eight slots with no entry objects.
+ * <p>
+ * To visit every neighbour, walk the slots {@code 0..capacity()-1} and skip those whose
+ * {@link #road(int)} is null. The table must not be changed during such a walk.
+ *
+ * @author Hussain Mohammad
+ */
+final class NeighbourTable {
+
+    private int[] towns = new int[4];
+    private Road[] roads = new Road[4];
+    private int size;
+
+    /**
+     * @return the number of neighbours
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param town the registry id of a town
+     * @return the road to the town, or null if it is not a neighbour
+     */
+    Road get(int town) {
+        int mask = roads.length - 1;
+        for (int slot = hash(town) & mask; roads[slot] != null; slot = (slot + 1) & mask) {
+            if (towns[slot] == town) return roads[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Makes a road the one reaching a neighbour.
+     *
+     * @param town the registry id of the neighbour
+     * @param road the road, not null
+     * @return the road it replaced, or null if the town was not a neighbour
+     */
+    Road put(int town, Road road) {
+        int mask = roads.length - 1;
+        int slot = hash(town) & mask;
+        for (; roads[slot] != null; slot = (slot + 1) & mask) {
+            if (towns[slot] == town) {
+                Road old = roads[slot];
+                roads[slot] = road;
+                return old;
+            }
+        }
+        if ((size + 1) * 4 > roads.length * 3) {
+            grow();
+            return put(town, road);
+        }
+        towns[slot] = town;
+        roads[slot] = road;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes a neighbour. Later entries of the probe run are shifted back into the gap, so no
+     * tombstones are left behind.
+     *
+     * @param town the registry id of the neighbour
+     * @return the road that reached it, or null if it was not a neighbour
+     */
+    Road remove(int town) {
+        int mask = roads.length - 1;
+        int slot = hash(town) & mask;
+        while (roads[slot] != null && towns[slot] != town) slot = (slot + 1) & mask;
+        Road old = roads[slot];
+        if (old == null) return null;
+        size--;
+        for (int next = (slot + 1) & mask; roads[next] != null; next = (next + 1) & mask) {
+            int home = hash(towns[next]) & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                towns[slot] = towns[next];
+                roads[slot] = roads[next];
+                slot = next;
+            }
+        }
+        roads[slot] = null;
+        return old;
+    }
+
+    /**
+     * @return the number of slots to walk when visiting every neighbour
+     */
+    int capacity() {
+        return roads.length;
+    }
+
+    /**
+     * @param slot a slot
+     * @return the registry id of the neighbour in the slot, meaningful only if the slot has a road
+     */
+    int town(int slot) {
+        return towns[slot];
+    }
+
+    /**
+     * @param slot a slot
+     * @return the road in the slot, or null if the slot is empty
+     */
+    Road road(int slot) {
+        return roads[slot];
+    }
+
+    private void grow() {
+        int[] oldTowns = towns;
+        Road[] oldRoads = roads;
+        towns = new int[oldRoads.length * 2];
+        roads = new Road[oldRoads.length * 2];
+        size = 0;
+        for (int slot = 0; slot < oldRoads.length; slot++) {
+            if (oldRoads[slot] != null) put(oldTowns[slot], oldRoads[slot]);
+        }
+    }
+
+    private static int hash(int town) {
+        int h = town * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
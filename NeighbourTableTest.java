@@ -0,0 +1,67 @@
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the int-keyed neighbour table behind the graph's adjacency.
+ *
+ * @author Hussain Mohammad
+ */
+public class NeighbourTableTest {
+	private NeighbourTable table;
+	private Town town;
+
+	@Before
+	public void setUp() throws Exception {
+		table = new NeighbourTable();
+		town = new Town("Town_0");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		table = null;
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		Road a = new Road(town, town, 1, "A");
+		Road b = new Road(town, town, 2, "B");
+		assertNull(table.put(7, a));
+		assertSame(a, table.put(7, b));
+		assertSame(b, table.get(7));
+		assertNull(table.get(8));
+		assertEquals(1, table.size());
+		assertSame(b, table.remove(7));
+		assertNull(table.remove(7));
+		assertEquals(0, table.size());
+	}
+
+	@Test
+	public void testMatchesHashMap() {
+		Random random = new Random(42);
+		Map<Integer, Road> expected = new HashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			int key = random.nextInt(64);
+			if (random.nextInt(3) == 0) {
+				assertSame(expected.remove(key), table.remove(key));
+			} else {
+				Road road = new Road(town, town, i, "Road_" + i);
+				assertSame(expected.put(key, road), table.put(key, road));
+			}
+			assertEquals(expected.size(), table.size());
+		}
+		int seen = 0;
+		for (int slot = 0; slot < table.capacity(); slot++) {
+			if (table.road(slot) == null) continue;
+			assertSame(expected.get(table.town(slot)), table.road(slot));
+			seen++;
+		}
+		assertEquals(expected.size(), seen);
+	}
+}
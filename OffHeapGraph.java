@@ -0,0 +1,367 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A read-only graph whose towns, roads and names all live outside the Java heap, for networks too
+ * large to hold as objects. The adjacency arrays, weights and string table are those of a
+ * {@link GraphSnapshot} file, memory-mapped in segments and paged in by the operating system, so
+ * the file may be far larger than 2 GB; the name index is a direct buffer. Opening a graph
+ * therefore costs the same small, fixed amount of heap whatever its size, and the garbage
+ * collector never scans the graph.
+ * <p>
+ * Routing uses the same {@link DijkstraSearch} as {@link Graph}, reading the mapped rows through
+ * {@link CsrGraph}. Its labels and indexed heap are not off-heap: they are plain int arrays, seven
+ * ints per town, and each thread that searches keeps its own until it searches another graph. Only
+ * opening is flat in heap; searching costs O(n) heap per searching thread.
+ * <p>
+ * A snapshot can be written from a {@link Graph} with {@link GraphSnapshot#save}, or streamed
+ * straight from a generator with {@link RoadNetworkGenerator#writeSnapshot}, so a continent-scale
+ * network need never exist on the heap at all. {@link Town} and {@link Road} objects are created
+ * only when a method returns them and are not kept. Every mutator throws
+ * {@link UnsupportedOperationException}. Any number of threads may query the graph at once.
+ *
+ * @author Hussain Mohammad
+ */
+public final class OffHeapGraph extends CsrGraph implements GraphInterface<Town, Road> {
+
+    private final GraphSnapshot snapshot;
+    private final int townCount;
+    private final IntBuffer nameIndex;
+    private final int nameMask;
+
+    private OffHeapGraph(GraphSnapshot snapshot) throws IOException {
+        snapshot.validate();
+        this.snapshot = snapshot;
+        this.townCount = snapshot.getTownCount();
+        int capacity = Integer.highestOneBit(Math.max(2, townCount * 2 - 1)) << 1;
+        this.nameIndex = direct(capacity);
+        this.nameMask = capacity - 1;
+        for (int id = 0; id < townCount; id++) {
+            int bucket = snapshot.stringHash(id) & nameMask;
+            while (nameIndex.get(bucket) != 0) bucket = (bucket + 1) & nameMask;
+            nameIndex.put(bucket, id + 1);
+        }
+    }
+
+    /**
+     * Opens a graph snapshot file by memory-mapping it. Every row, slot and string is checked
+     * once first, so a corrupt file fails here rather than in a later query.
+     *
+     * @param file the snapshot file
+     * @return the graph held in the file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static OffHeapGraph open(Path file) throws IOException {
+        return new OffHeapGraph(GraphSnapshot.open(file));
+    }
+
+    /**
+     * Opens a graph snapshot file mapped in small segments, to test reads across segment
+     * boundaries.
+     *
+     * @param file         the snapshot file
+     * @param segmentShift the base-2 logarithm of the segment size, from 2 to 30
+     * @return the graph held in the file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static OffHeapGraph open(Path file, int segmentShift) throws IOException {
+        return new OffHeapGraph(GraphSnapshot.open(file, segmentShift));
+    }
+
+    /**
+     * @return the number of towns
+     */
+    public int getTownCount() {
+        return townCount;
+    }
+
+    /**
+     * @return the number of roads
+     */
+    public int getRoadCount() {
+        return snapshot.getRoadCount();
+    }
+
+    /**
+     * Finds the town with the given name.
+     *
+     * @param name the town name
+     * @return the town, or null if there is none
+     */
+    public Town getTown(String name) {
+        int id = idOf(name);
+        return id < 0 ? null : town(id);
+    }
+
+    /**
+     * Retrieves the road connecting two towns, if it exists. If several roads join them, the
+     * shortest is returned.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return the connecting road, or null if none exists
+     */
+    @Override
+    public Road getEdge(Town sourceVertex, Town destinationVertex) {
+        int source = idOf(sourceVertex);
+        int slot = slotOf(source, idOf(destinationVertex));
+        return slot < 0 ? null : road(source, slot);
+    }
+
+    /**
+     * Always fails; an off-heap graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Road addEdge(Town sourceVertex, Town destinationVertex, int weight, String description) {
+        throw readOnly();
+    }
+
+    /**
+     * Always fails; an off-heap graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean addVertex(Town town) {
+        throw readOnly();
+    }
+
+    /**
+     * Checks if a road exists between two towns.
+     *
+     * @param sourceVertex      source town
+     * @param destinationVertex destination town
+     * @return true if the road exists, false otherwise
+     */
+    @Override
+    public boolean containsEdge(Town sourceVertex, Town destinationVertex) {
+        return slotOf(idOf(sourceVertex), idOf(destinationVertex)) >= 0;
+    }
+
+    /**
+     * Checks if a town exists in the graph.
+     *
+     * @param town the town to check
+     * @return true if the town exists, false otherwise
+     */
+    @Override
+    public boolean containsVertex(Town town) {
+        return idOf(town) >= 0;
+    }
+
+    /**
+     * Retrieves all roads in the graph. The set is built on the heap for each call, so this is
+     * meant for small graphs and tests.
+     *
+     * @return a new set of roads
+     */
+    @Override
+    public Set<Road> edgeSet() {
+        Set<Road> roads = new HashSet<>();
+        for (int u = 0; u < townCount; u++) {
+            for (int slot = snapshot.offset(u), end = snapshot.offset(u + 1); slot < end; slot++) {
+                if (snapshot.roadName(slot) >= 0) roads.add(road(u, slot));
+            }
+        }
+        return roads;
+    }
+
+    /**
+     * Retrieves all roads connected to a specific town.
+     *
+     * @param town the town whose roads are to be retrieved
+     * @return a set of connected roads, empty if the town has none
+     * @throws IllegalArgumentException if the town is not in the graph
+     * @throws NullPointerException     if the town is null
+     */
+    @Override
+    public Set<Road> edgesOf(Town town) {
+        Objects.requireNonNull(town, "Town cannot be null");
+        int id = idOf(town);
+        if (id < 0) throw new IllegalArgumentException("Town is not in the graph");
+        Set<Road> roads = new HashSet<>();
+        for (int slot = snapshot.offset(id), end = snapshot.offset(id + 1); slot < end; slot++) roads.add(road(id, slot));
+        return roads;
+    }
+
+    /**
+     * Always fails; an off-heap graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public Road removeEdge(Town sourceVertex, Town destinationVertex, int weight, String description) {
+        throw readOnly();
+    }
+
+    /**
+     * Always fails; an off-heap graph cannot be edited.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeVertex(Town town) {
+        throw readOnly();
+    }
+
+    /**
+     * Retrieves all towns in the graph. The set is built on the heap for each call, so this is
+     * meant for small graphs and tests.
+     *
+     * @return a new set of towns
+     */
+    @Override
+    public Set<Town> vertexSet() {
+        Set<Town> towns = new HashSet<>();
+        for (int id = 0; id < townCount; id++) towns.add(town(id));
+        return towns;
+    }
+
+    /**
+     * Finds the shortest path from one town to another.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return an ArrayList of Strings describing the path, empty if there is none
+     */
+    @Override
+    public ArrayList<String> shortestPath(Town sourceVertex, Town destinationVertex) {
+        return new ArrayList<>(findPath(sourceVertex, destinationVertex).getSteps());
+    }
+
+    /**
+     * Finds the shortest path from one town to another with Dijkstra's algorithm. The search
+     * stops as soon as the destination is settled.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the path, which is not found if either town is missing or they are disconnected
+     */
+    public PathResult findPath(Town sourceVertex, Town destinationVertex) {
+        int source = idOf(sourceVertex);
+        int target = idOf(destinationVertex);
+        if (source < 0 || target < 0) return PathResult.notFound(0);
+        DijkstraSearch search = DijkstraSearch.forThread(this);
+        search.run(source, target);
+        return search.pathTo(target);
+    }
+
+    /**
+     * Finds the shortest distance between two towns without building the path.
+     *
+     * @param sourceVertex      starting town
+     * @param destinationVertex ending town
+     * @return the distance, or -1 if either town is missing or they are disconnected
+     */
+    public int getDistance(Town sourceVertex, Town destinationVertex) {
+        int source = idOf(sourceVertex);
+        int target = idOf(destinationVertex);
+        if (source < 0 || target < 0) return -1;
+        DijkstraSearch search = DijkstraSearch.forThread(this);
+        search.run(source, target);
+        int d = search.distance(target);
+        return d == DijkstraSearch.UNREACHABLE ? -1 : d;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from a town over the whole graph. The distances are kept in the
+     * calling thread's search state, where the next query from the same thread replaces them.
+     *
+     * @param sourceVertex starting town
+     * @throws IllegalArgumentException if the town is not in the graph
+     */
+    @Override
+    public void dijkstraShortestPath(Town sourceVertex) {
+        int source = idOf(sourceVertex);
+        if (source < 0) throw new IllegalArgumentException("Town is not in the graph");
+        DijkstraSearch.forThread(this).run(source, -1);
+    }
+
+    @Override
+    int size() {
+        return townCount;
+    }
+
+    @Override
+    int firstSlot(int town) {
+        return snapshot.offset(town);
+    }
+
+    @Override
+    int target(int slot) {
+        return snapshot.target(slot);
+    }
+
+    @Override
+    int weight(int slot) {
+        return snapshot.weight(slot);
+    }
+
+    @Override
+    int idOf(Town town) {
+        return town == null ? -1 : idOf(town.getName());
+    }
+
+    /**
+     * Looks a name up in the open-addressed index, comparing UTF-8 bytes in place so no stored
+     * name is decoded.
+     */
+    private int idOf(String name) {
+        if (name == null) return -1;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int bucket = GraphSnapshot.hash(bytes) & nameMask; ; bucket = (bucket + 1) & nameMask) {
+            int entry = nameIndex.get(bucket);
+            if (entry == 0) return -1;
+            if (snapshot.stringEquals(entry - 1, bytes)) return entry - 1;
+        }
+    }
+
+    /**
+     * Finds the slot of the shortest road between two towns.
+     */
+    private int slotOf(int source, int destination) {
+        if (source < 0 || destination < 0) return -1;
+        int best = -1;
+        for (int slot = snapshot.offset(source), end = snapshot.offset(source + 1); slot < end; slot++) {
+            if (snapshot.target(slot) == destination && (best < 0 || snapshot.weight(slot) < snapshot.weight(best))) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    Town town(int id) {
+        return new Town(snapshot.string(id));
+    }
+
+    /**
+     * Creates the road in a slot of town {@code owner}, facing the way it was saved.
+     */
+    @Override
+    Road road(int owner, int slot) {
+        int nameId = snapshot.roadName(slot);
+        int distance = snapshot.weight(slot);
+        Town here = town(owner);
+        Town there = town(snapshot.target(slot));
+        return nameId >= 0 ? new Road(here, there, distance, snapshot.string(nameId))
+                : new Road(there, here, distance, snapshot.string(~nameId));
+    }
+
+    private static IntBuffer direct(int ints) {
+        return ByteBuffer.allocateDirect(ints * Integer.BYTES).asIntBuffer();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("An off-heap graph cannot be edited");
+    }
+}
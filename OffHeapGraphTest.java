@@ -0,0 +1,84 @@
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the memory-mapped, off-heap graph.
+ * 
+ * @author Hussain Mohammad
+ */
+public class OffHeapGraphTest {
+	private Graph graph;
+	private Town[] town;
+	private File file;
+	private OffHeapGraph offHeap;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[6];
+		for (int i = 0; i < 6; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[0], town[1], 4, "Road_1");
+		graph.addEdge(town[0], town[2], 1, "Road_2");
+		graph.addEdge(town[2], town[1], 2, "Road_2");
+		graph.addEdge(town[1], town[3], 5, "Road_3");
+		graph.addEdge(town[3], town[4], 3, "Road_4");
+		file = File.createTempFile("towns", ".tgs");
+		GraphSnapshot.save(graph, file.toPath());
+		offHeap = OffHeapGraph.open(file.toPath());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		offHeap = null;
+		Files.deleteIfExists(file.toPath());
+		graph = null;
+	}
+
+	@Test
+	public void testLookups() {
+		assertEquals(6, offHeap.getTownCount());
+		assertEquals(5, offHeap.getRoadCount());
+		assertEquals(graph.vertexSet(), offHeap.vertexSet());
+		assertEquals(graph.edgeSet(), offHeap.edgeSet());
+		assertEquals(graph.edgesOf(town[1]), offHeap.edgesOf(town[1]));
+		assertEquals("Town_2 via Road_2 to Town_1 2 mi", offHeap.getEdge(town[1], town[2]).toString());
+		assertFalse(offHeap.containsEdge(town[0], town[3]));
+		assertEquals(town[4], offHeap.getTown("Town_4"));
+		assertNull(offHeap.getTown("Town_9"));
+	}
+
+	@Test
+	public void testRouting() {
+		PathResult path = offHeap.findPath(town[0], town[4]);
+		assertEquals(11, path.getDistance());
+		assertEquals(Arrays.asList(town[0], town[2], town[1], town[3], town[4]), path.getTowns());
+		assertEquals(graph.shortestPath(town[0], town[4]), offHeap.shortestPath(town[0], town[4]));
+		assertEquals(3, offHeap.getDistance(town[1], town[0]));
+		assertEquals(-1, offHeap.getDistance(town[0], town[5]));
+	}
+
+	@Test
+	public void testSmallSegments() throws IOException {
+		OffHeapGraph segmented = OffHeapGraph.open(file.toPath(), 3);
+		assertEquals(graph.vertexSet(), segmented.vertexSet());
+		assertEquals(graph.edgeSet(), segmented.edgeSet());
+		assertEquals(town[3], segmented.getTown("Town_3"));
+		assertEquals(offHeap.findPath(town[0], town[4]).getRoads(), segmented.findPath(town[0], town[4]).getRoads());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testReadOnly() throws IOException {
+		offHeap.addVertex(new Town("Town_9"));
+	}
+}
@@ -0,0 +1,81 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests several named roads between the same two towns.
+ * 
+ * @author Hussain Mohammad
+ */
+public class ParallelRoadTest {
+	private Graph graph;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[4];
+		for (int i = 0; i < 4; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[0], town[1], 10, "Highway");
+		graph.addEdge(town[1], town[2], 3, "Main Street");
+		graph.addEdge(town[0], town[2], 20, "Back Road");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+	}
+
+	@Test
+	public void testRoadIdentity() {
+		Road road = new Road(town[0], town[1], 10, "Highway");
+		assertEquals(road, new Road(town[1], town[0], 4, "Highway"));
+		assertEquals(road.hashCode(), new Road(town[1], town[0], 4, "Highway").hashCode());
+		assertNotEquals(road, new Road(town[0], town[1], 10, "Toll Road"));
+		assertTrue(graph.edgeSet().contains(road));
+		assertFalse(graph.edgeSet().contains(new Road(town[0], town[1], 10, "Toll Road")));
+	}
+
+	@Test
+	public void testParallelRoads() {
+		assertNull(graph.addEdge(town[1], town[0], 7, "Highway"));
+		Road toll = graph.addEdge(town[1], town[0], 4, "Toll Road");
+		assertNotNull(toll);
+		assertNotNull(graph.addEdge(town[0], town[1], 12, "Old Road"));
+		assertEquals(5, graph.edgeSet().size());
+		assertEquals(4, graph.edgesOf(town[0]).size());
+		assertSame(toll, graph.getEdge(town[0], town[1]));
+		assertEquals(Arrays.asList("Highway", "Toll Road", "Old Road"), names(graph.getEdges(town[0], town[1])));
+		assertEquals(7, graph.findPath(town[0], town[2]).getDistance());
+		assertEquals(Arrays.asList(toll, graph.getEdge(town[1], town[2])), graph.findPath(town[0], town[2]).getRoads());
+	}
+
+	@Test
+	public void testRemoveParallelRoad() {
+		graph.shortestPathTree(town[0]);
+		graph.addEdge(town[0], town[1], 4, "Toll Road");
+		assertEquals(7, graph.findPath(town[0], town[2]).getDistance());
+		assertEquals("Toll Road", graph.removeEdge(town[0], town[1], -1, "Toll Road").getName());
+		assertEquals("Highway", graph.getEdge(town[0], town[1]).getName());
+		assertEquals(13, graph.findPath(town[0], town[2]).getDistance());
+		assertEquals(13, graph.shortestPathTree(town[0]).getDistance(town[2]));
+		graph.addEdge(town[0], town[1], 6, "Toll Road");
+		graph.removeVertex(town[1]);
+		assertEquals(new HashSet<>(Arrays.asList("Back Road")), new HashSet<>(names(graph.edgeSet())));
+		assertEquals(Arrays.asList("Back Road"), graph.getSortedRoadNames());
+	}
+
+	private static java.util.List<String> names(java.util.Collection<Road> roads) {
+		java.util.List<String> names = new java.util.ArrayList<>();
+		for (Road road : roads) names.add(road.getName());
+		return names;
+	}
+}
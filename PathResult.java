@@ -0,0 +1,119 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a route query: the towns and roads on the path in travel order, the total
+ * distance and the number of towns the search settled to find it. The string form used by
+ * {@link GraphInterface#shortestPath} is available as a view that formats each hop on demand.
+ * 
+ * @author Hussain Mohammad
+ */
+public final class PathResult {
+
+    private final Town[] towns;
+    private final Road[] roads;
+    private final int distance;
+    private final int settledCount;
+
+    /**
+     * Creates a result for a path that was found.
+     * 
+     * @param towns        the towns on the path, starting with the source
+     * @param roads        the roads on the path; {@code roads[i]} joins {@code towns[i]} and {@code towns[i+1]}
+     * @param distance     the total distance of the path
+     * @param settledCount the number of towns settled by the search
+     */
+    PathResult(Town[] towns, Road[] roads, int distance, int settledCount) {
+        if (towns.length != roads.length + 1) {
+            throw new IllegalArgumentException("A path needs exactly one more town than roads.");
+        }
+        this.towns = towns;
+        this.roads = roads;
+        this.distance = distance;
+        this.settledCount = settledCount;
+    }
+
+    /**
+     * Creates a result for a query with no path.
+     * 
+     * @param settledCount the number of towns settled by the search
+     * @return a result with no towns or roads
+     */
+    static PathResult notFound(int settledCount) {
+        return new PathResult(settledCount);
+    }
+
+    private PathResult(int settledCount) {
+        this.towns = new Town[0];
+        this.roads = new Road[0];
+        this.distance = -1;
+        this.settledCount = settledCount;
+    }
+
+    /**
+     * @return true if a path between the towns exists
+     */
+    public boolean isFound() {
+        return towns.length > 0;
+    }
+
+    /**
+     * @return the towns on the path in travel order, empty if no path was found
+     */
+    public List<Town> getTowns() {
+        return Collections.unmodifiableList(Arrays.asList(towns));
+    }
+
+    /**
+     * @return the roads on the path in travel order, empty if no path was found
+     */
+    public List<Road> getRoads() {
+        return Collections.unmodifiableList(Arrays.asList(roads));
+    }
+
+    /**
+     * @return the total distance of the path, or -1 if no path was found
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return the number of towns the search settled while answering the query
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Gets the hops of the path in the format "FromTown via RoadName to ToTown Distance mi".
+     * Each string is built only when it is read.
+     * 
+     * @return a read-only view of the hop descriptions
+     */
+    public List<String> getSteps() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return roads[index].toString(towns[index]);
+            }
+
+            @Override
+            public int size() {
+                return roads.length;
+            }
+        };
+    }
+
+    /**
+     * Returns a string representation of the path, one hop per line.
+     * 
+     * @return the path description
+     */
+    @Override
+    public String toString() {
+        return isFound() ? String.join(System.lineSeparator(), getSteps()) : "No path";
+    }
+}
@@ -0,0 +1,77 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the structured route results returned by Graph.findPath.
+ * 
+ * @author Hussain Mohammad
+ */
+public class PathResultTest {
+	private Graph graph;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[5];
+		town[1] = new Town("New York");
+		town[2] = new Town("Saint Paul");
+		town[3] = new Town("Los Angeles");
+		town[4] = new Town("Honolulu");
+		for (int i = 1; i < 5; i++)
+			graph.addVertex(town[i]);
+
+		graph.addEdge(town[2], town[1], 5, "I 90");
+		graph.addEdge(town[2], town[3], 7, "I 94");
+		graph.addEdge(town[1], town[3], 20, "Route 66");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+	}
+
+	@Test
+	public void testFoundPath() {
+		PathResult path = graph.findPath(town[1], town[3]);
+		assertTrue(path.isFound());
+		assertEquals(12, path.getDistance());
+		assertEquals(Arrays.asList(town[1], town[2], town[3]), path.getTowns());
+		assertEquals("I 90", path.getRoads().get(0).getName());
+		assertEquals("I 94", path.getRoads().get(1).getName());
+		assertTrue(path.getSettledCount() > 0);
+	}
+
+	@Test
+	public void testStepsUseTravelDirection() {
+		PathResult path = graph.findPath(town[1], town[3]);
+		assertEquals("New York via I 90 to Saint Paul 5 mi", path.getSteps().get(0));
+		assertEquals("Saint Paul via I 94 to Los Angeles 7 mi", path.getSteps().get(1));
+		ArrayList<String> strings = graph.shortestPath(town[1], town[3]);
+		assertEquals(path.getSteps(), strings);
+	}
+
+	@Test
+	public void testNoPath() {
+		PathResult path = graph.findPath(town[1], town[4]);
+		assertFalse(path.isFound());
+		assertEquals(-1, path.getDistance());
+		assertTrue(path.getRoads().isEmpty());
+		assertTrue(path.getSteps().isEmpty());
+	}
+
+	@Test
+	public void testSameTown() {
+		PathResult path = graph.findPath(town[2], town[2]);
+		assertTrue(path.isFound());
+		assertEquals(0, path.getDistance());
+		assertEquals(1, path.getTowns().size());
+		assertTrue(path.getSteps().isEmpty());
+	}
+}
@@ -1,7 +1,8 @@
 /**
  * Represents the edges of a Graph of Towns. Each road connects two towns and includes the distance
  * between them and the road's name. Since this is an undirected graph, a road from A to B is 
- * considered equivalent to a road from B to A.
+ * considered equivalent to a road from B to A. Two towns may be joined by several roads, which are
+ * told apart by name.
  * 
  * @author Hussain Mohammad
  */
@@ -11,6 +12,7 @@ public class Road implements Comparable<Road> {
     private final Town destination;
     private final int distance;
     private final String name;
+    private final int hash;
 
     /**
      * Constructor to initialize a road with specified distance.
@@ -31,6 +33,7 @@ public class Road implements Comparable<Road> {
         this.destination = destination;
         this.distance = distance;
         this.name = name;
+        this.hash = source.hashCode() + destination.hashCode() + name.hashCode();
     }
 
     /**
@@ -67,10 +70,11 @@ public class Road implements Comparable<Road> {
     }
 
     /**
-     * Determines equality based on the towns and direction-independence of the road.
+     * Determines equality based on the road's name and the towns it connects, in either
+     * direction. The distance is not compared.
      * 
      * @param obj the object to compare with
-     * @return true if the roads connect the same towns, false otherwise
+     * @return true if the roads have the same name and connect the same towns, false otherwise
      */
     @Override
     public boolean equals(Object obj) {
@@ -81,18 +85,22 @@ public class Road implements Comparable<Road> {
             return false;
         }
         Road other = (Road) obj;
+        if (this.hash != other.hash || !this.name.equals(other.name)) {
+            return false;
+        }
         return (this.source.equals(other.source) && this.destination.equals(other.destination))
                 || (this.source.equals(other.destination) && this.destination.equals(other.source));
     }
 
     /**
-     * Generates a hash code based on the towns and road name.
+     * Generates a hash code based on the towns and road name, computed once when the road is
+     * made. It does not depend on the road's direction.
      * 
      * @return the hash code
      */
     @Override
     public int hashCode() {
-        return source.hashCode() + destination.hashCode() + name.hashCode();
+        return hash;
     }
 
     /**
@@ -106,6 +114,18 @@ public class Road implements Comparable<Road> {
         return source.getName() + " via " + name + " to " + destination.getName() + " " + distance + " mi";
     }
 
+    /**
+     * Provides a string representation of the road as travelled from the given town.
+     * Format: "FromTown via RoadName to OtherTown Distance mi"
+     * 
+     * @param from the town the road is entered from
+     * @return a string representation of the road in the direction of travel
+     */
+    public String toString(Town from) {
+        Town to = source.equals(from) ? destination : source;
+        return from.getName() + " via " + name + " to " + to.getName() + " " + distance + " mi";
+    }
+
     /**
      * Gets the first town (source) of the road.
      * 
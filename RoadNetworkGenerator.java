@@ -0,0 +1,270 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of synthetic road networks for load and scale testing. The same
+ * topology, size, degree and seed always produce the same towns and roads, in the same order.
+ * Roads are streamed straight to the output, so a multi-gigabyte road file needs only a few ints
+ * per town of memory.
+ * <p>
+ * Towns are named {@code Town_<id>} and roads {@code Road_<n>}. Road lengths are in miles and at
+ * least 1. No generator produces a road from a town to itself or two roads between one pair of
+ * towns.
+ *
+ * @author Hussain Mohammad
+ */
+public final class RoadNetworkGenerator {
+
+    /**
+     * The shape of the generated network.
+     */
+    public enum Topology {
+
+        /** A square lattice; each town is joined to its neighbours to the east and south. */
+        GRID,
+
+        /**
+         * Towns scattered uniformly over a square, with a road between every two towns closer
+         * than a radius chosen to give the requested average degree. Road length follows the
+         * straight-line distance.
+         */
+        RANDOM_GEOMETRIC,
+
+        /**
+         * Preferential attachment (Barabasi-Albert): each new town is joined to existing towns
+         * chosen with probability proportional to their degree, giving a few large hubs.
+         */
+        SCALE_FREE
+    }
+
+    private static final int MAX_MILES = 100;
+
+    private final Topology topology;
+    private final int townCount;
+    private final int averageDegree;
+    private final long seed;
+
+    /**
+     * Creates a generator.
+     *
+     * @param topology      the shape of the network
+     * @param townCount     the number of towns; a grid is rounded to the nearest square
+     * @param averageDegree the target number of roads per town; ignored for grids
+     * @param seed          the random seed
+     * @throws IllegalArgumentException if the town count is less than 2 or the degree less than 1
+     */
+    public RoadNetworkGenerator(Topology topology, int townCount, int averageDegree, long seed) {
+        if (topology == null) throw new IllegalArgumentException("Topology cannot be null.");
+        if (townCount < 2) throw new IllegalArgumentException("A road network needs at least 2 towns.");
+        if (averageDegree < 1) throw new IllegalArgumentException("Average degree must be at least 1.");
+        this.topology = topology;
+        this.townCount = topology == Topology.GRID ? square(townCount) : townCount;
+        this.averageDegree = averageDegree;
+        this.seed = seed;
+    }
+
+    private static int square(int townCount) {
+        int side = Math.max(2, (int) Math.round(Math.sqrt(townCount)));
+        return side * side;
+    }
+
+    /**
+     * @return the number of towns the generator produces
+     */
+    public int getTownCount() {
+        return townCount;
+    }
+
+    /**
+     * Gets the name of a generated town.
+     *
+     * @param id a town id between 0 and {@link #getTownCount()} - 1
+     * @return the town's name
+     */
+    public static String townName(int id) {
+        return "Town_" + id;
+    }
+
+    /**
+     * Writes the network in the {@code road-name,miles;town-name;town-name} format read by
+     * {@link TownGraphManager#populateTownGraph}. A town with no roads, which a random geometric
+     * network can have, does not appear in this format.
+     *
+     * @param file the file to write, replaced if it exists
+     * @return the number of roads written
+     * @throws IOException if the file cannot be written
+     */
+    public long writeText(Path file) throws IOException {
+        long[] count = new long[1];
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            forEachRoad((u, v, miles, name) -> {
+                out.write(name);
+                out.write(',');
+                out.write(Integer.toString(miles));
+                out.write(';');
+                out.write(townName(u));
+                out.write(';');
+                out.write(townName(v));
+                out.write('\n');
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    /**
+     * Writes the network as a {@link GraphSnapshot} file without building a graph. The roads are
+     * generated twice, once to size the file and once to fill it.
+     *
+     * @param file the file to write, replaced if it exists
+     * @throws IOException if the file cannot be written or exceeds the snapshot size limit
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        GraphSnapshot.write(file, townCount, RoadNetworkGenerator::townName, this::forEachRoad);
+    }
+
+    /**
+     * Generates every road, in a fixed order, and passes it to a sink.
+     *
+     * @param sink receives each road as town ids, length and name
+     * @throws IOException if the sink fails
+     */
+    void forEachRoad(GraphSnapshot.RoadSink sink) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        switch (topology) {
+            case GRID:
+                grid(random, sink);
+                break;
+            case RANDOM_GEOMETRIC:
+                randomGeometric(random, sink);
+                break;
+            default:
+                scaleFree(random, sink);
+                break;
+        }
+    }
+
+    private void grid(SplittableRandom random, GraphSnapshot.RoadSink sink) throws IOException {
+        int side = (int) Math.round(Math.sqrt(townCount));
+        long road = 0;
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) sink.road(u, u + 1, 1 + random.nextInt(MAX_MILES), roadName(road++));
+                if (r + 1 < side) sink.road(u, u + side, 1 + random.nextInt(MAX_MILES), roadName(road++));
+            }
+        }
+    }
+
+    /**
+     * Buckets the towns into square cells one radius wide, so each town only has to be compared
+     * with the towns in its own and the adjacent cells.
+     */
+    private void randomGeometric(SplittableRandom random, GraphSnapshot.RoadSink sink) throws IOException {
+        double[] x = new double[townCount];
+        double[] y = new double[townCount];
+        for (int i = 0; i < townCount; i++) {
+            x[i] = random.nextDouble();
+            y[i] = random.nextDouble();
+        }
+        double radius = Math.sqrt(averageDegree / (Math.PI * townCount));
+        int cells = Math.max(1, (int) (1 / radius));
+        int[] start = new int[cells * cells + 1];
+        int[] cellOf = new int[townCount];
+        for (int i = 0; i < townCount; i++) {
+            cellOf[i] = cell(x[i], cells) * cells + cell(y[i], cells);
+            start[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) start[c + 1] += start[c];
+        int[] members = new int[townCount];
+        int[] fill = start.clone();
+        for (int i = 0; i < townCount; i++) members[fill[cellOf[i]]++] = i;
+
+        double milesPerUnit = MAX_MILES / radius;
+        long road = 0;
+        for (int u = 0; u < townCount; u++) {
+            int cx = cellOf[u] / cells, cy = cellOf[u] % cells;
+            for (int nx = Math.max(0, cx - 1); nx <= Math.min(cells - 1, cx + 1); nx++) {
+                for (int ny = Math.max(0, cy - 1); ny <= Math.min(cells - 1, cy + 1); ny++) {
+                    int c = nx * cells + ny;
+                    for (int k = start[c]; k < start[c + 1]; k++) {
+                        int v = members[k];
+                        if (v <= u) continue;
+                        double distance = Math.hypot(x[u] - x[v], y[u] - y[v]);
+                        if (distance > radius) continue;
+                        sink.road(u, v, Math.max(1, (int) Math.ceil(distance * milesPerUnit)), roadName(road++));
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cell(double coordinate, int cells) {
+        return Math.min(cells - 1, (int) (coordinate * cells));
+    }
+
+    /**
+     * Keeps one entry per road end in a flat array; picking a uniform entry picks a town with
+     * probability proportional to its degree.
+     */
+    private void scaleFree(SplittableRandom random, GraphSnapshot.RoadSink sink) throws IOException {
+        int links = Math.max(1, averageDegree / 2);
+        int seedTowns = Math.min(townCount, links + 1);
+        int[] ends = new int[2 * (seedTowns * (seedTowns - 1) / 2 + (townCount - seedTowns) * links)];
+        int size = 0;
+        long road = 0;
+        for (int u = 0; u < seedTowns; u++) {
+            for (int v = u + 1; v < seedTowns; v++) {
+                sink.road(u, v, 1 + random.nextInt(MAX_MILES), roadName(road++));
+                ends[size++] = u;
+                ends[size++] = v;
+            }
+        }
+        int[] chosen = new int[links];
+        for (int u = seedTowns; u < townCount; u++) {
+            int picked = 0;
+            int limit = size;
+            while (picked < links) {
+                int v = ends[random.nextInt(limit)];
+                boolean repeat = false;
+                for (int k = 0; k < picked; k++) repeat |= chosen[k] == v;
+                if (repeat) continue;
+                chosen[picked++] = v;
+                sink.road(v, u, 1 + random.nextInt(MAX_MILES), roadName(road++));
+                ends[size++] = v;
+                ends[size++] = u;
+            }
+        }
+    }
+
+    private static String roadName(long road) {
+        return "Road_" + road;
+    }
+
+    /**
+     * Writes a network from the command line.
+     * <pre>
+     * java RoadNetworkGenerator GRID|RANDOM_GEOMETRIC|SCALE_FREE towns degree seed text|snapshot file
+     * </pre>
+     *
+     * @param args the topology, town count, average degree, seed, output format and file
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            System.err.println("usage: RoadNetworkGenerator GRID|RANDOM_GEOMETRIC|SCALE_FREE towns degree seed text|snapshot file");
+            System.exit(2);
+        }
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(Topology.valueOf(args[0]),
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+        Path file = Paths.get(args[5]);
+        if ("snapshot".equals(args[4])) generator.writeSnapshot(file);
+        else generator.writeText(file);
+    }
+}
@@ -0,0 +1,78 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that generated networks are deterministic and agree between the text and snapshot forms.
+ * 
+ * @author Hussain Mohammad
+ */
+public class RoadNetworkGeneratorTest {
+	private Path text;
+	private Path snapshot;
+
+	@Before
+	public void setUp() throws Exception {
+		text = Files.createTempFile("roads", ".txt");
+		snapshot = Files.createTempFile("roads", ".tgs");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(text);
+		Files.deleteIfExists(snapshot);
+	}
+
+	@Test
+	public void testTextAndSnapshotAgree() throws IOException {
+		for (RoadNetworkGenerator.Topology topology : RoadNetworkGenerator.Topology.values()) {
+			RoadNetworkGenerator generator = new RoadNetworkGenerator(topology, 400, 4, 7);
+			long roads = generator.writeText(text);
+			generator.writeSnapshot(snapshot);
+			Graph fromText = new Graph();
+			assertEquals(roads, new TownGraphLoader().load(text, fromText));
+			assertEquals(1, fromText.getVersion());
+			Graph fromSnapshot = GraphSnapshot.load(snapshot);
+			assertEquals(generator.getTownCount(), fromSnapshot.vertexSet().size());
+			assertEquals(roads, fromSnapshot.edgeSet().size());
+			for (Road road : fromText.edgeSet()) {
+				Road other = fromSnapshot.getEdge(road.getSource(), road.getDestination());
+				assertNotNull(other);
+				assertEquals(road.getName(), other.getName());
+				assertEquals(road.getDistance(), other.getDistance());
+			}
+		}
+	}
+
+	@Test
+	public void testSameSeedSameNetwork() throws IOException {
+		new RoadNetworkGenerator(RoadNetworkGenerator.Topology.SCALE_FREE, 300, 6, 11).writeText(text);
+		new RoadNetworkGenerator(RoadNetworkGenerator.Topology.SCALE_FREE, 300, 6, 11).writeText(snapshot);
+		assertArrayEquals(Files.readAllBytes(text), Files.readAllBytes(snapshot));
+	}
+
+	@Test
+	public void testGridShape() throws IOException {
+		RoadNetworkGenerator generator = new RoadNetworkGenerator(RoadNetworkGenerator.Topology.GRID, 10, 1, 3);
+		assertEquals(9, generator.getTownCount());
+		assertEquals(12, generator.writeText(text));
+	}
+
+	@Test
+	public void testEmptyRoadNameIsMalformed() throws IOException {
+		Files.write(text, "Road_1,3;Town_0;Town_1\n,4;Town_1;Town_2\n".getBytes());
+		Graph graph = new Graph();
+		try {
+			new TownGraphLoader().load(text, graph);
+			fail("Expected IOException");
+		} catch (IOException expected) {
+		}
+		assertTrue(graph.edgeSet().isEmpty());
+	}
+}
@@ -0,0 +1,209 @@
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded cache of route query results keyed by (source, destination), evicting the least
+ * recently used route when full. Every entry set is stamped with the {@link Graph#getVersion()} it
+ * was computed at; the first lookup after the graph changes finds a different version and drops
+ * every cached route, so a stale path is never returned. After edits that only removed roads the
+ * owner can call {@link #roadsRemoved} instead, which keeps every route that avoided them.
+ * <p>
+ * The cache is not thread-safe; it belongs to the single thread that edits and queries its graph.
+ *
+ * @author Hussain Mohammad
+ */
+public final class RouteCache {
+
+    private final LinkedHashMap<Key, PathResult> routes = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+    private long version = -1;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates a cache holding up to the given number of routes.
+     *
+     * @param capacity the maximum number of routes, 0 to disable caching
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public RouteCache(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * Looks up a route computed at the given graph version.
+     *
+     * @param source      starting town
+     * @param destination ending town
+     * @param version     the current version of the graph
+     * @return the cached route, or null if there is none for this version
+     */
+    PathResult get(Town source, Town destination, long version) {
+        if (version != this.version) {
+            if (!routes.isEmpty()) invalidations++;
+            routes.clear();
+            this.version = version;
+        }
+        PathResult path = capacity == 0 ? null : routes.get(new Key(source, destination));
+        if (path != null) hits++;
+        else misses++;
+        return path;
+    }
+
+    /**
+     * Stores a route computed at the version passed to the preceding {@link #get}.
+     *
+     * @param source      starting town
+     * @param destination ending town
+     * @param path        the route found
+     */
+    void put(Town source, Town destination, PathResult path) {
+        if (capacity == 0) return;
+        routes.put(new Key(source, destination), path);
+        trim();
+    }
+
+    /**
+     * Carries the cache over an edit that only removed roads. Removing roads never shortens a
+     * path, so a cached route that uses none of them is still a shortest route, and a pair with no
+     * route still has none; only routes through a removed road are dropped. If the cache was not
+     * at the version before the edit, nothing is kept and the next lookup clears it as usual.
+     *
+     * @param fromVersion the graph version before the roads were removed
+     * @param toVersion   the graph version after
+     * @param removed     the roads removed
+     */
+    void roadsRemoved(long fromVersion, long toVersion, Collection<Road> removed) {
+        if (version != fromVersion) return;
+        version = toVersion;
+        if (removed.isEmpty()) return;
+        Set<Road> gone = new HashSet<>(removed);
+        routes.values().removeIf(path -> {
+            for (Road road : path.getRoads()) {
+                if (gone.contains(road)) return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @return the maximum number of routes held
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum number of routes held, evicting the least recently used routes if the
+     * cache is now over capacity.
+     *
+     * @param capacity the maximum number of routes, 0 to disable caching
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Cache capacity cannot be negative");
+        this.capacity = capacity;
+        trim();
+    }
+
+    /**
+     * @return the number of routes currently cached
+     */
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that had to run a search
+     */
+    public long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 if there were none
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of routes evicted to stay within capacity
+     */
+    public long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of times cached routes were dropped because the graph changed
+     */
+    public long getInvalidationCount() {
+        return invalidations;
+    }
+
+    /**
+     * Drops every cached route. The counters are kept.
+     */
+    public void clear() {
+        routes.clear();
+    }
+
+    /**
+     * Returns a summary of the cache's size and counters.
+     *
+     * @return the statistics as a string
+     */
+    @Override
+    public String toString() {
+        return String.format("RouteCache[size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, "
+                + "invalidations=%d]", routes.size(), capacity, hits, misses, getHitRate() * 100, evictions,
+                invalidations);
+    }
+
+    private void trim() {
+        while (routes.size() > capacity) {
+            Map.Entry<Key, PathResult> eldest = routes.entrySet().iterator().next();
+            routes.remove(eldest.getKey());
+            evictions++;
+        }
+    }
+
+    /**
+     * An ordered pair of towns.
+     */
+    private static final class Key {
+        final Town source;
+        final Town destination;
+
+        Key(Town source, Town destination) {
+            this.source = source;
+            this.destination = destination;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return source.equals(other.source) && destination.equals(other.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * source.hashCode() + destination.hashCode();
+        }
+    }
+}
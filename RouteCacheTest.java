@@ -0,0 +1,100 @@
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the route cache behind TownGraphManager.getPath.
+ * 
+ * @author Hussain Mohammad
+ */
+public class RouteCacheTest {
+	private TownGraphManager manager;
+
+	@Before
+	public void setUp() throws Exception {
+		manager = new TownGraphManager();
+		for (int i = 1; i <= 4; i++) {
+			manager.addTown("Town_" + i);
+		}
+		manager.addRoad("Town_1", "Town_2", 2, "Road_1");
+		manager.addRoad("Town_2", "Town_3", 2, "Road_2");
+		manager.addRoad("Town_1", "Town_3", 9, "Road_3");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		manager = null;
+	}
+
+	@Test
+	public void testHitsAndMisses() {
+		RouteCache cache = manager.getRouteCache();
+		assertEquals(4, manager.findPath("Town_1", "Town_3").getDistance());
+		assertEquals(4, manager.findPath("Town_1", "Town_3").getDistance());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testEditsInvalidate() {
+		assertEquals(4, manager.findPath("Town_1", "Town_3").getDistance());
+		manager.deleteTown("Town_2");
+		assertEquals(9, manager.findPath("Town_1", "Town_3").getDistance());
+		manager.addTown("Town_2");
+		manager.addRoad("Town_1", "Town_2", 1, "Road_4");
+		manager.addRoad("Town_2", "Town_3", 1, "Road_5");
+		assertEquals(2, manager.findPath("Town_1", "Town_3").getDistance());
+		assertEquals(0, manager.getRouteCache().getHitCount());
+		assertEquals(2, manager.getRouteCache().getInvalidationCount());
+	}
+
+	@Test
+	public void testEviction() {
+		RouteCache cache = manager.getRouteCache();
+		cache.setCapacity(2);
+		manager.findPath("Town_1", "Town_2");
+		manager.findPath("Town_1", "Town_3");
+		manager.findPath("Town_1", "Town_2");
+		manager.findPath("Town_2", "Town_3");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		manager.findPath("Town_1", "Town_2");
+		assertEquals(2, cache.getHitCount());
+		manager.findPath("Town_1", "Town_3");
+		assertEquals(2, cache.getHitCount());
+	}
+
+	@Test
+	public void testDeletesKeepUnaffectedRoutes() {
+		RouteCache cache = manager.getRouteCache();
+		assertEquals(4, manager.findPath("Town_1", "Town_3").getDistance());
+		assertEquals(2, manager.findPath("Town_1", "Town_2").getDistance());
+		assertTrue(manager.deleteRoadConnection("Town_1", "Town_3", "Road_3"));
+		assertEquals(4, manager.findPath("Town_1", "Town_3").getDistance());
+		assertEquals(1, cache.getHitCount());
+		assertTrue(manager.deleteRoadConnection("Town_3", "Town_2", "Road_2"));
+		assertEquals(2, manager.findPath("Town_1", "Town_2").getDistance());
+		assertEquals(2, cache.getHitCount());
+		assertFalse(manager.findPath("Town_1", "Town_3").isFound());
+		assertEquals(0, cache.getInvalidationCount());
+	}
+
+	@Test
+	public void testDeleteRoadConnections() {
+		assertFalse(manager.deleteRoadConnection("Town_1", "Town_2", "Road_2"));
+		assertEquals(2, manager.deleteRoadConnections(new String[] { "Town_1", "Town_2", "Town_4" },
+				new String[] { "Town_2", "Town_3", "Town_1" }, new String[] { "Road_1", "Road_2", "Road_1" }));
+		assertFalse(manager.containsRoadConnection("Town_1", "Town_2"));
+		assertTrue(manager.containsRoadConnection("Town_1", "Town_3"));
+		assertEquals(9, manager.findPath("Town_1", "Town_3").getDistance());
+		try {
+			manager.deleteRoadConnections(new String[] { "Town_1" }, new String[0], new String[] { "Road_3" });
+			fail("Mismatched arrays should be rejected");
+		} catch (IllegalArgumentException e) {
+			assertTrue(manager.containsRoadConnection("Town_1", "Town_3"));
+		}
+	}
+}
@@ -0,0 +1,165 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A frozen, array-backed copy of a {@link Graph} used by the routing algorithms. Towns are given
+ * dense ids {@code 0..size-1} and adjacency is stored in compressed sparse row form: the roads of
+ * town {@code u} occupy slots {@code offsets[u]..offsets[u+1]-1} of {@code targets},
+ * {@code weights} and {@code roads}. Each undirected road appears once from each end.
+ * <p>
+ * The arrays are also read through {@link CsrGraph}, so plain Dijkstra runs the same search here
+ * as on the read-only graphs; the other routing algorithms read the arrays directly.
+ * 
+ * @author Hussain Mohammad
+ */
+final class RoutingGraph extends CsrGraph {
+
+    final Town[] towns;
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+    final Road[] roads;
+    /** The number of roads in the source graph, counting parallel roads and roads to the same town. */
+    final int roadCount;
+    private final Map<String, Integer> ids;
+    private volatile int[] reverse;
+
+    private RoutingGraph(Town[] towns, Map<String, Integer> ids, int[] offsets, int[] targets, int[] weights,
+            Road[] roads, int roadCount) {
+        this.towns = towns;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.roads = roads;
+        this.roadCount = roadCount;
+    }
+
+    /**
+     * Compiles the current state of a graph. The graph's {@link TownRegistry} ids are packed into
+     * routing ids in the same order, so the rows are filled straight from the int-keyed adjacency
+     * without hashing a town; only the lookup table from town name to routing id is hashed.
+     * 
+     * @param graph the graph to compile
+     * @return the compiled routing graph
+     */
+    static RoutingGraph of(Graph graph) {
+        int n = graph.vertexSet().size();
+        Town[] towns = new Town[n];
+        Map<String, Integer> ids = new HashMap<>(n * 4 / 3 + 1);
+        TownRegistry registry = graph.registry();
+        int[] packed = new int[registry.capacity()];
+        int[] offsets = new int[n + 1];
+        int next = 0;
+        for (int id = 0; id < packed.length; id++) {
+            Town town = registry.town(id);
+            if (town == null) continue;
+            towns[next] = town;
+            ids.put(town.getName(), next);
+            packed[id] = next;
+            offsets[next + 1] = offsets[next] + graph.neighbours(id).size();
+            next++;
+        }
+        int m = offsets[n];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        Road[] roads = new Road[m];
+        int slot = 0;
+        for (int id = 0; id < packed.length; id++) {
+            if (registry.town(id) == null) continue;
+            NeighbourTable neighbours = graph.neighbours(id);
+            for (int entry = 0; entry < neighbours.capacity(); entry++) {
+                Road road = neighbours.road(entry);
+                if (road == null) continue;
+                targets[slot] = packed[neighbours.town(entry)];
+                weights[slot] = road.getDistance();
+                roads[slot] = road;
+                slot++;
+            }
+        }
+        return new RoutingGraph(towns, ids, offsets, targets, weights, roads, graph.edgeSet().size());
+    }
+
+    /**
+     * Gets, for every slot, the slot holding the same road seen from its other end. Built on first
+     * use in O(m log d): each town's incoming slots are bucketed in source order, its outgoing
+     * slots sorted by target, and the two lists then line up one to one.
+     * 
+     * @return the reverse slot of each slot
+     */
+    int[] reverseSlots() {
+        int[] result = reverse;
+        if (result != null) return result;
+        int n = size();
+        int m = targets.length;
+        int[] incoming = new int[m];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int slot = offsets[u]; slot < offsets[u + 1]; slot++) incoming[fill[targets[slot]]++] = slot;
+        }
+        long[] outgoing = new long[m];
+        for (int slot = 0; slot < m; slot++) outgoing[slot] = (long) targets[slot] << 32 | slot;
+        result = new int[m];
+        for (int v = 0; v < n; v++) {
+            Arrays.sort(outgoing, offsets[v], offsets[v + 1]);
+            for (int k = offsets[v]; k < offsets[v + 1]; k++) result[(int) outgoing[k]] = incoming[k];
+        }
+        reverse = result;
+        return result;
+    }
+
+    @Override
+    int size() {
+        return towns.length;
+    }
+
+    @Override
+    int firstSlot(int town) {
+        return offsets[town];
+    }
+
+    @Override
+    int target(int slot) {
+        return targets[slot];
+    }
+
+    @Override
+    int weight(int slot) {
+        return weights[slot];
+    }
+
+    @Override
+    Town town(int id) {
+        return towns[id];
+    }
+
+    @Override
+    Road road(int owner, int slot) {
+        return roads[slot];
+    }
+
+    /**
+     * Gets the dense id of a town from the table built at compile time, which unlike the graph's
+     * registry never changes and so can be read from any thread.
+     * 
+     * @param town a town
+     * @return the dense id of the town, or -1 if it is not in this graph
+     */
+    @Override
+    int idOf(Town town) {
+        return town == null ? -1 : idOf(town.getName());
+    }
+
+    /**
+     * Gets the dense id of the town with a name. Towns are equal by name, so the table is keyed by
+     * name and a lookup by name needs no {@link Town} to be built.
+     * 
+     * @param name a town name
+     * @return the dense id of the town, or -1 if it is not in this graph
+     */
+    int idOf(String name) {
+        Integer id = name == null ? null : ids.get(name);
+        return id != null ? id : -1;
+    }
+}
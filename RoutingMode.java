@@ -0,0 +1,30 @@
+/**
+ * The search strategies a {@link Graph} can use to answer point-to-point route queries. All modes
+ * return a shortest path; they differ only in how much of the graph they explore to find it.
+ * 
+ * @author Hussain Mohammad
+ */
+public enum RoutingMode {
+
+    /** One-sided Dijkstra from the source, stopping once the destination is settled. */
+    DIJKSTRA,
+
+    /** Dijkstra grown from both ends at once, stopping once the two frontiers prove the optimum. */
+    BIDIRECTIONAL,
+
+    /** A* guided by landmark distance bounds; the landmark tables are built on first use. */
+    ALT,
+
+    /**
+     * Upward bidirectional search over a {@link ContractionHierarchy}; the hierarchy is built on
+     * first use and rebuilt on the first query after the graph changes.
+     */
+    CONTRACTION_HIERARCHY,
+
+    /**
+     * A walk through an {@link AllPairsTable} of next hops, with no search at all; the table is
+     * built on first use and rebuilt on the first query after the graph changes. Only suitable
+     * for graphs of up to {@value AllPairsTable#MAX_TOWNS} towns.
+     */
+    ALL_PAIRS
+}
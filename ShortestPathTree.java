@@ -0,0 +1,84 @@
+import java.util.List;
+
+/**
+ * The result of one full Dijkstra run: the distance from a source to every town and the road each
+ * town was reached by. Any number of destinations can be answered from one tree, so the distances
+ * from a depot to every customer cost a single search. A tree holds three ints per town and is
+ * immutable; it describes the graph as it was when the tree was built.
+ *
+ * @author Hussain Mohammad
+ */
+public final class ShortestPathTree {
+
+    private final TownIndex graph;
+    private final int source;
+    private final int[] dist;
+    private final int[] pred;
+    private final int[] predSlot;
+    private final int settledCount;
+
+    ShortestPathTree(TownIndex graph, int source, int[] dist, int[] pred, int[] predSlot, int settledCount) {
+        this.graph = graph;
+        this.source = source;
+        this.dist = dist;
+        this.pred = pred;
+        this.predSlot = predSlot;
+        this.settledCount = settledCount;
+    }
+
+    /**
+     * @return the town the tree is rooted at
+     */
+    public Town getSource() {
+        return graph.town(source);
+    }
+
+    /**
+     * @return the number of towns reachable from the source, including the source
+     */
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Gets the shortest distance from the source to a town.
+     *
+     * @param town the destination town
+     * @return the distance, or -1 if the town is unreachable or was not in the graph
+     */
+    public int getDistance(Town town) {
+        int id = graph.idOf(town);
+        return id < 0 || dist[id] == DijkstraSearch.UNREACHABLE ? -1 : dist[id];
+    }
+
+    /**
+     * Gets the shortest distances from the source to many towns.
+     *
+     * @param towns the destination towns
+     * @return the distance to each town in the same order, -1 where a town is unreachable
+     */
+    public int[] getDistances(List<Town> towns) {
+        int[] distances = new int[towns.size()];
+        for (int i = 0; i < distances.length; i++) distances[i] = getDistance(towns.get(i));
+        return distances;
+    }
+
+    /**
+     * Gets the shortest path from the source to a town.
+     *
+     * @param town the destination town
+     * @return the path, which is not found if the town is unreachable or was not in the graph
+     */
+    public PathResult pathTo(Town town) {
+        return pathTo(graph.idOf(town));
+    }
+
+    /**
+     * @param node a town id in the tree's graph, or -1
+     * @return the path from the source to the node
+     */
+    PathResult pathTo(int node) {
+        if (node < 0 || dist[node] == DijkstraSearch.UNREACHABLE) return PathResult.notFound(settledCount);
+        return graph.path(node, dist[node], pred, predSlot, settledCount);
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests single-source shortest-path trees and one-to-many distances.
+ * 
+ * @author Hussain Mohammad
+ */
+public class ShortestPathTreeTest {
+	private Graph graph;
+	private Town[] town;
+
+	@Before
+	public void setUp() throws Exception {
+		graph = new Graph();
+		town = new Town[6];
+		for (int i = 0; i < 6; i++) {
+			town[i] = new Town("Town_" + i);
+			graph.addVertex(town[i]);
+		}
+		graph.addEdge(town[0], town[1], 4, "Road_1");
+		graph.addEdge(town[0], town[2], 1, "Road_2");
+		graph.addEdge(town[2], town[1], 2, "Road_3");
+		graph.addEdge(town[1], town[3], 5, "Road_4");
+		graph.addEdge(town[3], town[4], 3, "Road_5");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		graph = null;
+	}
+
+	@Test
+	public void testDistances() {
+		int[] distances = graph.distances(town[0], Arrays.asList(town));
+		assertArrayEquals(new int[] { 0, 3, 1, 8, 11, -1 }, distances);
+		ShortestPathTree tree = graph.shortestPathTree(town[0]);
+		assertEquals(5, tree.getSettledCount());
+		assertEquals(town[0], tree.getSource());
+		assertEquals(Arrays.asList(town[0], town[2], town[1], town[3]), tree.pathTo(town[3]).getTowns());
+		assertFalse(tree.pathTo(town[5]).isFound());
+	}
+
+	@Test
+	public void testTreeIsCachedUntilEdit() {
+		ShortestPathTree tree = graph.shortestPathTree(town[0]);
+		assertSame(tree, graph.shortestPathTree(town[0]));
+		assertEquals(8, graph.findPath(town[0], town[3]).getDistance());
+		graph.addEdge(town[0], town[3], 2, "Road_6");
+		assertNotSame(tree, graph.shortestPathTree(town[0]));
+		assertEquals(2, graph.findPath(town[0], town[3]).getDistance());
+		assertEquals(8, tree.getDistance(town[3]));
+	}
+
+	@Test
+	public void testCacheSize() {
+		graph.setTreeCacheSize(1);
+		ShortestPathTree first = graph.shortestPathTree(town[0]);
+		graph.shortestPathTree(town[1]);
+		assertNotSame(first, graph.shortestPathTree(town[0]));
+	}
+}
@@ -1,5 +1,3 @@
-import java.util.Objects;
-
 /**
  * Represents a town as a node (vertex) in a graph.
  * 
@@ -8,6 +6,7 @@ import java.util.Objects;
 public class Town implements Comparable<Town> {
 
     private final String name;
+    private final int hash;
 
     /**
      * Constructor to initialize a town with its name.
@@ -19,6 +18,7 @@ public class Town implements Comparable<Town> {
             throw new IllegalArgumentException("Town name cannot be null or empty.");
         }
         this.name = name;
+        this.hash = 31 + name.hashCode();
     }
 
     /**
@@ -31,6 +31,7 @@ public class Town implements Comparable<Town> {
             throw new IllegalArgumentException("Template town cannot be null.");
         }
         this.name = templateTown.name;
+        this.hash = templateTown.hash;
     }
 
     /**
@@ -57,19 +58,19 @@ public class Town implements Comparable<Town> {
             return true;
         }
         if (obj instanceof Town other) {
-            return this.name.equals(other.name);
+            return this.hash == other.hash && this.name.equals(other.name);
         }
         return false;
     }
 
     /**
-     * Returns the hash code for the town based on its name.
+     * Returns the hash code for the town based on its name, computed once when the town is made.
      * 
      * @return the hash code
      */
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return hash;
     }
 
     /**
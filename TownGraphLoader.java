@@ -0,0 +1,222 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk loader for road files in the {@code road-name,miles;town-name;town-name} format read by
+ * {@link TownGraphManager#populateTownGraph}. The file is cut into byte ranges that end on line
+ * breaks; the ranges are memory-mapped and parsed in parallel by scanning bytes directly, with
+ * every town name interned to a single {@link Town}. Parsed ranges are then added to the graph in
+ * file order, a window at a time, so memory use is bounded by the window rather than the file.
+ * <p>
+ * Blank lines are skipped. Lines that join the same two towns by differently named roads are all
+ * kept as parallel roads; only a repeat of a road name between the same two towns is skipped,
+ * keeping the first, as with {@link Graph#addEdge}.
+ *
+ * @author Hussain Mohammad
+ */
+public final class TownGraphLoader {
+
+    private static final int DEFAULT_CHUNK_BYTES = 8 << 20;
+
+    private final int chunkBytes;
+    private final int parallelism;
+
+    /**
+     * Creates a loader with 8 MB ranges and one worker per available processor.
+     */
+    public TownGraphLoader() {
+        this(DEFAULT_CHUNK_BYTES, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a loader with the given range size and number of workers.
+     *
+     * @param chunkBytes  the target size of each byte range
+     * @param parallelism the number of ranges parsed at once
+     * @throws IllegalArgumentException if either value is less than 1
+     */
+    public TownGraphLoader(int chunkBytes, int parallelism) {
+        if (chunkBytes < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Chunk size and parallelism must be positive");
+        }
+        this.chunkBytes = chunkBytes;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Loads every road in a file into a graph, adding towns as they are first seen. The whole file
+     * is added as one batch, so the graph's version goes up once and its routing data is
+     * discarded once.
+     *
+     * @param file  the road file
+     * @param graph the graph to add to
+     * @return the number of roads read from the file
+     * @throws IOException if the file cannot be read or a line is malformed
+     */
+    public long load(Path file, Graph graph) throws IOException {
+        Map<String, Town> towns = new ConcurrentHashMap<>();
+        for (Town town : graph.vertexSet()) towns.put(town.getName(), town);
+        long lines = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        graph.beginBatch();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> ranges = split(channel);
+            for (int from = 0; from < ranges.size(); from += parallelism * 2) {
+                List<long[]> window = ranges.subList(from, Math.min(ranges.size(), from + parallelism * 2));
+                List<Chunk> chunks = pool.submit(() -> window.parallelStream()
+                        .map(range -> parse(channel, range[0], range[1], towns))
+                        .collect(Collectors.toList())).get();
+                for (Chunk chunk : chunks) {
+                    graph.addRoads(chunk.sources, chunk.destinations, chunk.distances, chunk.names, chunk.count);
+                    lines += chunk.count;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) throw ((UncheckedIOException) e.getCause()).getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file, e);
+        } finally {
+            pool.shutdown();
+            graph.endBatch();
+        }
+        return lines;
+    }
+
+    /**
+     * Cuts the file into ranges of about {@code chunkBytes} that each end just after a line break.
+     */
+    private List<long[]> split(FileChannel channel) throws IOException {
+        List<long[]> ranges = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkBytes);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) break;
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            end = Math.min(end, size);
+            ranges.add(new long[] { start, end });
+            start = end;
+        }
+        return ranges;
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end, Map<String, Town> towns) {
+        MappedByteBuffer bytes;
+        try {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Chunk chunk = new Chunk();
+        byte[] field = new byte[256];
+        int length = bytes.limit();
+        int i = 0;
+        while (i < length) {
+            int lineStart = i;
+            int lineEnd = i;
+            while (lineEnd < length && bytes.get(lineEnd) != '\n') lineEnd++;
+            i = lineEnd + 1;
+            if (lineEnd > lineStart && bytes.get(lineEnd - 1) == '\r') lineEnd--;
+            if (lineEnd == lineStart) continue;
+
+            int comma = indexOf(bytes, (byte) ',', lineStart, lineEnd);
+            int first = indexOf(bytes, (byte) ';', comma + 1, lineEnd);
+            int second = indexOf(bytes, (byte) ';', first + 1, lineEnd);
+            if (comma < 0 || first < 0 || second < 0) throw malformed(start + lineStart);
+            int distance = 0;
+            if (comma == lineStart || first == comma + 1) throw malformed(start + lineStart);
+            for (int k = comma + 1; k < first; k++) {
+                int digit = bytes.get(k) - '0';
+                if (digit < 0 || digit > 9 || distance > (Integer.MAX_VALUE - digit) / 10) {
+                    throw malformed(start + lineStart);
+                }
+                distance = distance * 10 + digit;
+            }
+            field = ensure(field, lineEnd - lineStart);
+            String name = decode(bytes, lineStart, comma, field);
+            Town source = towns.computeIfAbsent(decode(bytes, first + 1, second, field), Town::new);
+            Town destination = towns.computeIfAbsent(decode(bytes, second + 1, lineEnd, field), Town::new);
+            chunk.add(source, destination, distance, name);
+        }
+        return chunk;
+    }
+
+    private static int indexOf(MappedByteBuffer bytes, byte b, int from, int to) {
+        if (from < 0) return -1;
+        for (int k = from; k < to; k++) {
+            if (bytes.get(k) == b) return k;
+        }
+        return -1;
+    }
+
+    private static byte[] ensure(byte[] field, int length) {
+        return field.length >= length ? field : new byte[Math.max(length, field.length * 2)];
+    }
+
+    private static String decode(MappedByteBuffer bytes, int from, int to, byte[] field) {
+        bytes.get(from, field, 0, to - from);
+        return new String(field, 0, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static UncheckedIOException malformed(long offset) {
+        return new UncheckedIOException(new IOException("Malformed road line at byte " + offset
+                + "; expected road-name,miles;town-name;town-name"));
+    }
+
+    /**
+     * The roads parsed from one byte range, in file order.
+     */
+    private static final class Chunk {
+        Town[] sources = new Town[1024];
+        Town[] destinations = new Town[1024];
+        int[] distances = new int[1024];
+        String[] names = new String[1024];
+        int count;
+
+        void add(Town source, Town destination, int distance, String name) {
+            if (count == sources.length) {
+                int capacity = count * 2;
+                sources = Arrays.copyOf(sources, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            sources[count] = source;
+            destinations[count] = destination;
+            distances[count] = distance;
+            names[count++] = name;
+        }
+    }
+}
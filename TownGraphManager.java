@@ -1,17 +1,26 @@
 import java.io.*;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.List;
 
 /**
  * TownGraphManager handles the operations for managing towns and roads in a graph.
  * It provides methods to add, delete, and query towns and roads, and populate the graph
  * from a file.
+ * <p>
+ * The manager is edited from one writer thread. Readers on other threads work from the immutable
+ * {@link GraphVersion} returned by {@link #snapshot()}. The writer makes a batch of edits and then
+ * calls {@link #publish()} to swap in the next version in one step, so a reader sees either all of
+ * a batch or none of it and never waits for the writer.
  * 
  * @author Hussain Mohammad
  */
 public class TownGraphManager implements TownGraphManagerInterface {
 
+    private static final int DEFAULT_ROUTE_CACHE_SIZE = 1024;
+
     private final Graph graph = new Graph();
+    private final RouteCache routeCache = new RouteCache(DEFAULT_ROUTE_CACHE_SIZE);
+    private volatile GraphVersion published = graph.snapshot();
 
     /**
      * Adds a road to the graph.
@@ -24,7 +33,12 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public boolean addRoad(String town1, String town2, int distance, String roadName) {
-        return graph.addEdge(new Town(town1), new Town(town2), distance, roadName) != null;
+        Town source = graph.getTown(town1);
+        Town destination = graph.getTown(town2);
+        if (source == null || destination == null) {
+            throw new IllegalArgumentException("Both towns must be in the graph");
+        }
+        return graph.addEdge(source, destination, distance, roadName) != null;
     }
 
     /**
@@ -36,7 +50,7 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public String getRoad(String town1, String town2) {
-        Road road = graph.getEdge(new Town(town1), new Town(town2));
+        Road road = graph.getEdge(graph.getTown(town1), graph.getTown(town2));
         return road != null ? road.getName() : null;
     }
 
@@ -48,7 +62,7 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public boolean addTown(String name) {
-        return graph.addVertex(new Town(name));
+        return graph.getTown(name) == null && graph.addVertex(new Town(name));
     }
 
     /**
@@ -59,11 +73,7 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public Town getTown(String name) {
-        return graph.vertexSet()
-                    .stream()
-                    .filter(town -> town.getName().equals(name))
-                    .findFirst()
-                    .orElse(null);
+        return graph.getTown(name);
     }
 
     /**
@@ -74,7 +84,7 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public boolean containsTown(String name) {
-        return graph.containsVertex(new Town(name));
+        return graph.getTown(name) != null;
     }
 
     /**
@@ -86,7 +96,7 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public boolean containsRoadConnection(String town1, String town2) {
-        return graph.containsEdge(new Town(town1), new Town(town2));
+        return graph.containsEdge(graph.getTown(town1), graph.getTown(town2));
     }
 
     /**
@@ -96,15 +106,20 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public ArrayList<String> allRoads() {
-        return graph.edgeSet()
-                    .stream()
-                    .map(Road::getName)
-                    .sorted()
-                    .collect(Collectors.toCollection(ArrayList::new));
+        return new ArrayList<>(graph.getSortedRoadNames());
+    }
+
+    /**
+     * Retrieves all road names sorted alphabetically without copying them.
+     * 
+     * @return a read-only list of road names, valid until the roads change
+     */
+    public List<String> roadNames() {
+        return graph.getSortedRoadNames();
     }
 
     /**
-     * Deletes a road from the graph.
+     * Deletes a road from the graph, whatever its distance.
      * 
      * @param town1 - name of the first town
      * @param town2 - name of the second town
@@ -113,7 +128,34 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public boolean deleteRoadConnection(String town1, String town2, String road) {
-        return graph.removeEdge(new Town(town1), new Town(town2), 0, road) != null;
+        return deleteRoadConnections(new String[] { town1 }, new String[] { town2 }, new String[] { road }) == 1;
+    }
+
+    /**
+     * Deletes many roads in one pass. The graph version goes up once for all of them, and cached
+     * routes that use none of the deleted roads stay cached.
+     * 
+     * @param towns1 - name of the first town of each road
+     * @param towns2 - name of the second town of each road
+     * @param roads  - name of each road
+     * @return the number of roads deleted
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public int deleteRoadConnections(String[] towns1, String[] towns2, String[] roads) {
+        int count = roads.length;
+        if (towns1.length != count || towns2.length != count) {
+            throw new IllegalArgumentException("Each road needs two towns and a name");
+        }
+        Town[] firsts = new Town[count];
+        Town[] seconds = new Town[count];
+        for (int i = 0; i < count; i++) {
+            firsts[i] = graph.getTown(towns1[i]);
+            seconds[i] = graph.getTown(towns2[i]);
+        }
+        long version = graph.getVersion();
+        List<Road> removed = graph.removeRoads(firsts, seconds, roads, count);
+        routeCache.roadsRemoved(version, graph.getVersion(), removed);
+        return removed.size();
     }
 
     /**
@@ -124,7 +166,7 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public boolean deleteTown(String name) {
-        return graph.removeVertex(new Town(name));
+        return graph.removeVertex(graph.getTown(name));
     }
 
     /**
@@ -134,15 +176,21 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public ArrayList<String> allTowns() {
-        return graph.vertexSet()
-                    .stream()
-                    .map(Town::getName)
-                    .sorted()
-                    .collect(Collectors.toCollection(ArrayList::new));
+        return new ArrayList<>(graph.getSortedTownNames());
+    }
+
+    /**
+     * Retrieves all town names sorted alphabetically without copying them.
+     * 
+     * @return a read-only list of town names, valid until the towns change
+     */
+    public List<String> townNames() {
+        return graph.getSortedTownNames();
     }
 
     /**
-     * Finds the shortest path between two towns.
+     * Finds the shortest path between two towns. Repeated queries are answered from the
+     * {@link #getRouteCache() route cache} until the graph changes.
      * 
      * @param town1 - name of the starting town
      * @param town2 - name of the destination town
@@ -150,25 +198,155 @@ public class TownGraphManager implements TownGraphManagerInterface {
      */
     @Override
     public ArrayList<String> getPath(String town1, String town2) {
-        return graph.shortestPath(new Town(town1), new Town(town2));
+        return new ArrayList<>(findPath(town1, town2).getSteps());
+    }
+
+    /**
+     * Finds the shortest path between two towns as a structured result. Repeated queries are
+     * answered from the {@link #getRouteCache() route cache} until the graph changes.
+     * 
+     * @param town1 - name of the starting town
+     * @param town2 - name of the destination town
+     * @return the path with its roads, total distance and search statistics
+     */
+    public PathResult findPath(String town1, String town2) {
+        Town source = graph.getTown(town1);
+        Town destination = graph.getTown(town2);
+        if (source == null || destination == null) return graph.findPath(source, destination);
+        PathResult path = routeCache.get(source, destination, graph.getVersion());
+        if (path == null) {
+            path = graph.findPath(source, destination);
+            routeCache.put(source, destination, path);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the shortest distances from one town to many others with a single search. The search
+     * result is kept, so asking again from the same town costs only the lookups.
+     * 
+     * @param town  - name of the starting town
+     * @param towns - names of the destination towns
+     * @return the distance to each destination in the same order, -1 where a town is unreachable
+     *         or unknown
+     * @throws IllegalArgumentException if the starting town is not in the graph
+     */
+    public int[] getDistances(String town, List<String> towns) {
+        List<Town> destinations = new ArrayList<>(towns.size());
+        for (String name : towns) destinations.add(graph.getTown(name));
+        return graph.distances(graph.getTown(town), destinations);
+    }
+
+    /**
+     * Gets the cache used by {@link #getPath} and {@link #findPath(String, String)}, to read its
+     * hit and miss counts or change its capacity.
+     * 
+     * @return the route cache
+     */
+    public RouteCache getRouteCache() {
+        return routeCache;
+    }
+
+    /**
+     * Finds the shortest path between two towns with the given search strategy.
+     * 
+     * @param town1 - name of the starting town
+     * @param town2 - name of the destination town
+     * @param mode  - the search strategy to use for this query
+     * @return the path with its roads, total distance and search statistics
+     */
+    public PathResult findPath(String town1, String town2, RoutingMode mode) {
+        return graph.findPath(graph.getTown(town1), graph.getTown(town2), mode);
+    }
+
+    /**
+     * Sets the search strategy used by {@link #getPath} and {@link #findPath(String, String)}.
+     * 
+     * @param mode - the routing mode to use
+     */
+    public void setRoutingMode(RoutingMode mode) {
+        graph.setRoutingMode(mode);
+        routeCache.clear();
+    }
+
+    /**
+     * Saves the towns and roads to a binary snapshot that {@link #loadSnapshot} can map back in.
+     * 
+     * @param file - the snapshot file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void saveSnapshot(File file) throws IOException {
+        GraphSnapshot.save(graph, file.toPath());
+    }
+
+    /**
+     * Adds the towns and roads of a binary snapshot written by {@link #saveSnapshot} to the graph,
+     * as a single edit that bumps the version once.
+     * 
+     * @param file - the snapshot file to read
+     * @throws IOException if the file cannot be read or is not a valid snapshot, in which case
+     *                     the graph is left unchanged
+     */
+    public void loadSnapshot(File file) throws IOException {
+        GraphSnapshot.open(file.toPath()).addTo(graph);
+        publish();
+    }
+
+    /**
+     * Applies a batch of edits. The batch is checked in full first, so if any edit is invalid
+     * nothing is changed. Derived routing data is rebuilt once for the whole batch, and the result
+     * is published to {@link #snapshot()} readers in one step.
+     * 
+     * @param batch - the edits to apply, in order
+     * @return the number of edits that changed the graph
+     * @throws IllegalArgumentException if an edit is invalid, naming the first such edit
+     */
+    public int apply(GraphBatch batch) {
+        batch.validate(graph);
+        int changed;
+        graph.beginBatch();
+        try {
+            changed = batch.applyTo(graph);
+        } finally {
+            graph.endBatch();
+        }
+        publish();
+        return changed;
+    }
+
+    /**
+     * Gets the last published version of the graph. This may be called from any thread.
+     * 
+     * @return the version published by the last call to {@link #publish()}
+     */
+    public GraphVersion snapshot() {
+        return published;
+    }
+
+    /**
+     * Publishes the current state of the graph to readers of {@link #snapshot()}. Loading a file
+     * or snapshot publishes automatically; other edits become visible only when this is called.
+     * 
+     * @return the newly published version
+     */
+    public GraphVersion publish() {
+        GraphVersion version = graph.snapshot();
+        published = version;
+        return version;
     }
 
     /**
      * Populates the graph with data from a file.
      * The file should have the format: road-name,miles;town-name;town-name
+     * The file is parsed in parallel byte ranges by a {@link TownGraphLoader}.
      * 
      * @param file - the file containing graph data
-     * @throws IOException if an error occurs during file reading
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if an error occurs during file reading or a line is malformed
      */
     public void populateTownGraph(File file) throws IOException {
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file)))) {
-            br.lines()
-              .map(line -> line.split(";|,"))
-              .forEach(parts -> {
-                  addTown(parts[2]);
-                  addTown(parts[3]);
-                  addRoad(parts[2], parts[3], Integer.parseInt(parts[1]), parts[0]);
-              });
-        }
+        if (!file.isFile()) throw new FileNotFoundException(file.getPath());
+        new TownGraphLoader().load(file.toPath(), graph);
+        publish();
     }
 }
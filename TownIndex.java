@@ -0,0 +1,35 @@
+/**
+ * Towns numbered with dense int ids, and the way back from search labels over those ids to a
+ * {@link PathResult}. This is all a {@link ShortestPathTree} needs of the graph it was built on:
+ * the {@link CsrGraph}s number towns by their rows, and the trees a {@link Graph} keeps up to date
+ * number them by the graph's {@link TownRegistry}.
+ *
+ * @author Hussain Mohammad
+ */
+abstract class TownIndex {
+
+    /**
+     * @param town a town
+     * @return the dense id of the town, or -1 if it is not in this index
+     */
+    abstract int idOf(Town town);
+
+    /**
+     * @param id a town id
+     * @return the town with the id
+     */
+    abstract Town town(int id);
+
+    /**
+     * Builds a path result by following predecessor labels back from a node.
+     *
+     * @param node     the last town of the path
+     * @param distance the distance of the path
+     * @param pred     predecessor town ids, -1 at the start of the path
+     * @param predSlot the slot of the road used to reach each town, or null if the index keeps
+     *                 the roads itself
+     * @param settled  the number of towns settled by the search
+     * @return the path ending at the node
+     */
+    abstract PathResult path(int node, int distance, int[] pred, int[] predSlot, int settled);
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the towns of one {@link Graph}: each name maps to a single canonical {@link Town}, and
+ * each canonical town has a dense int id in {@code 0..capacity()-1}. The ids of removed towns are
+ * handed out again before new ones, so the range stays close to the number of towns.
+ * <p>
+ * The ids live only here: {@link Town} is a plain value, so one instance can be held by any number
+ * of graphs, each numbering it independently. A town's id is found by hashing its name once; the
+ * graph's adjacency and routing work on the ids from then on.
+ * <p>
+ * The id-to-town array can be handed out with {@link #towns()} for a frozen tree to keep; it is
+ * copied on the next change rather than on every hand-out.
+ *
+ * @author Hussain Mohammad
+ */
+final class TownRegistry {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private Town[] towns = new Town[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int capacity;
+    private boolean shared;
+    private long removals;
+
+    /**
+     * @param name a town name
+     * @return the canonical town with the name, or null if there is none
+     */
+    Town get(String name) {
+        Integer id = name == null ? null : ids.get(name);
+        return id != null ? towns[id] : null;
+    }
+
+    /**
+     * Returns the canonical town equal to the given one, registering the given town as canonical
+     * if there is none.
+     *
+     * @param town the town to intern
+     * @return the canonical town
+     */
+    Town intern(Town town) {
+        Town existing = get(town.getName());
+        if (existing != null) return existing;
+        int id = freeCount > 0 ? free[--freeCount] : capacity++;
+        if (id == towns.length) {
+            towns = Arrays.copyOf(towns, id * 2);
+            shared = false;
+        }
+        writable();
+        towns[id] = town;
+        ids.put(town.getName(), id);
+        return town;
+    }
+
+    /**
+     * Unregisters the canonical town equal to the given one and frees its id.
+     *
+     * @param town the town to remove
+     * @return the canonical town that was removed, or null if there was none
+     */
+    Town remove(Town town) {
+        Integer id = ids.remove(town.getName());
+        if (id == null) return null;
+        Town canonical = towns[id];
+        writable();
+        towns[id] = null;
+        removals++;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = id;
+        return canonical;
+    }
+
+    /**
+     * @param town a town
+     * @return the id of the canonical town equal to it, or -1 if there is none
+     */
+    int idOf(Town town) {
+        if (town == null) return -1;
+        Integer id = ids.get(town.getName());
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id a town id
+     * @return the canonical town with the id, or null if the id is free
+     */
+    Town town(int id) {
+        return towns[id];
+    }
+
+    /**
+     * @return one more than the largest id handed out
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the town of every id as of now. The array is shared with the registry until its next
+     * change, so the caller must not write to it.
+     *
+     * @return the canonical town of each id, null where the id is free
+     */
+    Town[] towns() {
+        shared = true;
+        return towns;
+    }
+
+    /**
+     * Gets the number of towns ever removed. Ids only change hands when a town is removed, so while
+     * this count stays the same every id handed out before still names the same town.
+     *
+     * @return the removal count
+     */
+    long removals() {
+        return removals;
+    }
+
+    private void writable() {
+        if (shared) {
+            towns = towns.clone();
+            shared = false;
+        }
+    }
+}
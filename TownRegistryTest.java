@@ -0,0 +1,62 @@
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests town interning and dense ids.
+ * 
+ * @author Hussain Mohammad
+ */
+public class TownRegistryTest {
+	private TownRegistry registry;
+
+	@Before
+	public void setUp() throws Exception {
+		registry = new TownRegistry();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		registry = null;
+	}
+
+	@Test
+	public void testIntern() {
+		Town a = new Town("A");
+		assertSame(a, registry.intern(a));
+		assertSame(a, registry.intern(new Town("A")));
+		assertSame(a, registry.get("A"));
+		assertEquals(0, registry.idOf(a));
+		assertEquals(0, registry.idOf(new Town("A")));
+		assertEquals(1, registry.idOf(registry.intern(new Town("B"))));
+		assertEquals(-1, registry.idOf(new Town("C")));
+		assertEquals(2, registry.capacity());
+	}
+
+	@Test
+	public void testIdsAreReused() {
+		Town a = registry.intern(new Town("A"));
+		registry.intern(new Town("B"));
+		assertSame(a, registry.remove(new Town("A")));
+		assertNull(registry.get("A"));
+		assertEquals(-1, registry.idOf(a));
+		Town c = registry.intern(new Town("C"));
+		assertEquals(0, registry.idOf(c));
+		assertSame(c, registry.town(0));
+		assertEquals(2, registry.capacity());
+	}
+
+	@Test
+	public void testTownInTwoGraphs() {
+		Town a = new Town("A");
+		TownRegistry other = new TownRegistry();
+		other.intern(new Town("Z"));
+		other.intern(a);
+		registry.intern(a);
+		assertEquals(1, other.idOf(a));
+		assertEquals(0, registry.idOf(a));
+		assertEquals(new Town("A").hashCode(), a.hashCode());
+	}
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Method handles onto the graph classes. Those classes live in the default package, which JMH
+ * benchmarks cannot import, so they are reached through constant {@code static final} handles
+ * adapted to {@code Object} parameters. The JIT folds such handles into direct calls, so they add
+ * no measurable cost to the benchmarked operations.
+ *
+ * @author Hussain Mohammad
+ */
+final class Api {
+
+    static final Class<?> GRAPH = load("Graph");
+    static final Class<?> TOWN = load("Town");
+    static final Class<?> ROAD = load("Road");
+    static final Class<?> MANAGER = load("TownGraphManager");
+    static final Class<?> PATH_RESULT = load("PathResult");
+    static final Class<?> ROUTING_MODE = load("RoutingMode");
+
+    static final MethodHandle NEW_GRAPH = constructor(GRAPH);
+    static final MethodHandle NEW_TOWN = constructor(TOWN, String.class);
+    static final MethodHandle NEW_MANAGER = constructor(MANAGER);
+
+    static final MethodHandle ADD_VERTEX = virtual(GRAPH, "addVertex", boolean.class, TOWN);
+    static final MethodHandle ADD_EDGE = virtual(GRAPH, "addEdge", ROAD, TOWN, TOWN, int.class, String.class);
+    static final MethodHandle GET_EDGE = virtual(GRAPH, "getEdge", ROAD, TOWN, TOWN);
+    static final MethodHandle EDGES_OF = virtual(GRAPH, "edgesOf", java.util.Set.class, TOWN);
+    static final MethodHandle REMOVE_VERTEX = virtual(GRAPH, "removeVertex", boolean.class, TOWN);
+    static final MethodHandle SHORTEST_PATH = virtual(GRAPH, "shortestPath", java.util.ArrayList.class, TOWN, TOWN);
+    static final MethodHandle FIND_PATH = virtual(GRAPH, "findPath", PATH_RESULT, TOWN, TOWN, ROUTING_MODE);
+    static final MethodHandle SET_ROUTING_MODE = virtual(GRAPH, "setRoutingMode", void.class, ROUTING_MODE);
+    static final MethodHandle CONTRACTION_HIERARCHY = virtual(GRAPH, "contractionHierarchy", load("ContractionHierarchy"));
+    static final MethodHandle PREPARE_LANDMARKS = virtual(GRAPH, "prepareLandmarks", void.class);
+    static final MethodHandle PATH_DISTANCE = virtual(PATH_RESULT, "getDistance", int.class);
+    static final MethodHandle POPULATE = virtual(MANAGER, "populateTownGraph", void.class, File.class);
+
+    private Api() {
+    }
+
+    /**
+     * @param name the name of a RoutingMode constant
+     * @return the constant
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object routingMode(String name) {
+        return Enum.valueOf((Class) ROUTING_MODE, name);
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(owner, MethodType.methodType(void.class, parameters));
+            return handle.asType(handle.type().generic());
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> result, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(owner, name, MethodType.methodType(result, parameters));
+            MethodType type = handle.type().generic();
+            if (result.isPrimitive()) type = type.changeReturnType(result);
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].isPrimitive()) type = type.changeParameterType(i + 1, parameters[i]);
+            }
+            return handle.asType(type);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point operations on a grid graph: lookups against a fixed graph, and insertions into a graph
+ * that is rebuilt before every iteration.
+ *
+ * @author Hussain Mohammad
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GraphBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    int towns;
+
+    private Networks.Network network;
+    private Object[] newTowns;
+    private int next;
+    private int probe;
+    private int[] probes;
+
+    @Setup(Level.Trial)
+    public void buildProbes() {
+        SplittableRandom random = new SplittableRandom(7);
+        probes = new int[1 << 16];
+        for (int i = 0; i < probes.length; i++) probes[i] = random.nextInt(Integer.MAX_VALUE);
+    }
+
+    @Setup(Level.Iteration)
+    public void buildGraph() throws Throwable {
+        network = Networks.grid(towns, 42);
+        newTowns = new Object[1 << 20];
+        for (int i = 0; i < newTowns.length; i++) newTowns[i] = (Object) Api.NEW_TOWN.invokeExact((Object) ("New_" + i));
+        next = 0;
+    }
+
+    private int nextProbe() {
+        return probes[probe++ & (probes.length - 1)] % network.towns.length;
+    }
+
+    @Benchmark
+    public boolean addVertex() throws Throwable {
+        return (boolean) Api.ADD_VERTEX.invokeExact(network.graph, newTowns[next++ & (newTowns.length - 1)]);
+    }
+
+    @Benchmark
+    public Object addEdge() throws Throwable {
+        Object a = network.towns[nextProbe()];
+        Object b = network.towns[nextProbe()];
+        return (Object) Api.ADD_EDGE.invokeExact(network.graph, a, b, 10, (Object) "Bench");
+    }
+
+    @Benchmark
+    public Object getEdge() throws Throwable {
+        int u = nextProbe();
+        int v = u + 1 < network.towns.length ? u + 1 : u - 1;
+        return (Object) Api.GET_EDGE.invokeExact(network.graph, network.towns[u], network.towns[v]);
+    }
+
+    @Benchmark
+    public Object edgesOf() throws Throwable {
+        return (Object) Api.EDGES_OF.invokeExact(network.graph, network.towns[nextProbe()]);
+    }
+}
@@ -0,0 +1,99 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic road networks for the benchmarks: square grids with random road lengths, which have
+ * the low degree and large diameter of real road graphs.
+ *
+ * @author Hussain Mohammad
+ */
+final class Networks {
+
+    /** A generated graph and its towns, indexed row by row. */
+    static final class Network {
+        final Object graph;
+        final Object[] towns;
+        final int side;
+
+        Network(Object graph, Object[] towns, int side) {
+            this.graph = graph;
+            this.towns = towns;
+            this.side = side;
+        }
+    }
+
+    private Networks() {
+    }
+
+    /**
+     * Builds a grid with about the requested number of towns.
+     *
+     * @param townCount the approximate number of towns
+     * @param seed      the random seed for road lengths
+     * @return the network
+     */
+    static Network grid(int townCount, long seed) throws Throwable {
+        int side = Math.max(2, (int) Math.round(Math.sqrt(townCount)));
+        Object graph = (Object) Api.NEW_GRAPH.invokeExact();
+        Object[] towns = new Object[side * side];
+        for (int i = 0; i < towns.length; i++) {
+            towns[i] = (Object) Api.NEW_TOWN.invokeExact((Object) name(i));
+            boolean added = (boolean) Api.ADD_VERTEX.invokeExact(graph, towns[i]);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int u = r * side + c;
+                if (c + 1 < side) {
+                    Object road = (Object) Api.ADD_EDGE.invokeExact(graph, towns[u], towns[u + 1], 1 + random.nextInt(100), (Object) ("E" + u));
+                }
+                if (r + 1 < side) {
+                    Object road = (Object) Api.ADD_EDGE.invokeExact(graph, towns[u], towns[u + side], 1 + random.nextInt(100), (Object) ("S" + u));
+                }
+            }
+        }
+        return new Network(graph, towns, side);
+    }
+
+    /**
+     * Writes the same grid as {@link #grid} in the road file format read by populateTownGraph.
+     *
+     * @param townCount the approximate number of towns
+     * @param seed      the random seed for road lengths
+     * @param file      the file to write
+     */
+    static void writeGrid(int townCount, long seed, Path file) throws IOException {
+        int side = Math.max(2, (int) Math.round(Math.sqrt(townCount)));
+        SplittableRandom random = new SplittableRandom(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int r = 0; r < side; r++) {
+                for (int c = 0; c < side; c++) {
+                    int u = r * side + c;
+                    if (c + 1 < side) line(out, "E" + u, 1 + random.nextInt(100), u, u + 1);
+                    if (r + 1 < side) line(out, "S" + u, 1 + random.nextInt(100), u, u + side);
+                }
+            }
+        }
+    }
+
+    private static void line(BufferedWriter out, String road, int miles, int u, int v) throws IOException {
+        out.write(road);
+        out.write(',');
+        out.write(Integer.toString(miles));
+        out.write(';');
+        out.write(name(u));
+        out.write(';');
+        out.write(name(v));
+        out.newLine();
+    }
+
+    static String name(int i) {
+        return "Town_" + i;
+    }
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads a grid road file into an empty TownGraphManager.
+ *
+ * @author Hussain Mohammad
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class PopulateBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    int towns;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        file = Files.createTempFile("roads-" + towns + "-", ".txt");
+        Networks.writeGrid(towns, 42, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Object populateTownGraph() throws Throwable {
+        Object manager = (Object) Api.NEW_MANAGER.invokeExact();
+        Api.POPULATE.invokeExact(manager, (Object) file.toFile());
+        return manager;
+    }
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Removes 1,000 random towns from a freshly built grid per iteration. Removal is destructive, so
+ * each iteration is a single shot over its own graph.
+ *
+ * @author Hussain Mohammad
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class RemoveVertexBenchmark {
+
+    private static final int REMOVALS = 1000;
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    int towns;
+
+    private Networks.Network network;
+    private int[] victims;
+
+    @Setup(Level.Iteration)
+    public void buildGraph() throws Throwable {
+        network = Networks.grid(towns, 42);
+        SplittableRandom random = new SplittableRandom(11);
+        victims = new int[REMOVALS];
+        for (int i = 0; i < REMOVALS; i++) victims[i] = random.nextInt(network.towns.length);
+    }
+
+    @Benchmark
+    public int removeVertex() throws Throwable {
+        int removed = 0;
+        for (int victim : victims) {
+            if ((boolean) Api.REMOVE_VERTEX.invokeExact(network.graph, network.towns[victim])) removed++;
+        }
+        return removed;
+    }
+}
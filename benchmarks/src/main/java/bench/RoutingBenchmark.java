@@ -0,0 +1,70 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Random point-to-point route queries on a grid, for each routing mode. Preprocessing for ALT and
+ * Contraction Hierarchies happens in setup and is not measured.
+ *
+ * @author Hussain Mohammad
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    int towns;
+
+    @Param({ "DIJKSTRA", "BIDIRECTIONAL", "ALT", "CONTRACTION_HIERARCHY" })
+    String mode;
+
+    private Networks.Network network;
+    private Object routingMode;
+    private int[] pairs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildGraph() throws Throwable {
+        network = Networks.grid(towns, 42);
+        routingMode = Api.routingMode(mode);
+        Api.SET_ROUTING_MODE.invokeExact(network.graph, routingMode);
+        if ("ALT".equals(mode)) Api.PREPARE_LANDMARKS.invokeExact(network.graph);
+        if ("CONTRACTION_HIERARCHY".equals(mode)) {
+            Object hierarchy = (Object) Api.CONTRACTION_HIERARCHY.invokeExact(network.graph);
+        }
+        SplittableRandom random = new SplittableRandom(5);
+        pairs = new int[2 * 1024];
+        for (int i = 0; i < pairs.length; i++) pairs[i] = random.nextInt(network.towns.length);
+    }
+
+    @Benchmark
+    public int findPath() throws Throwable {
+        int i = (next++ & 1023) * 2;
+        Object path = (Object) Api.FIND_PATH.invokeExact(network.graph, network.towns[pairs[i]], network.towns[pairs[i + 1]], routingMode);
+        return (int) Api.PATH_DISTANCE.invokeExact(path);
+    }
+
+    @Benchmark
+    public Object shortestPath() throws Throwable {
+        int i = (next++ & 1023) * 2;
+        return (Object) Api.SHORTEST_PATH.invokeExact(network.graph, network.towns[pairs[i]], network.towns[pairs[i + 1]]);
+    }
+}